@@ -1,49 +1,641 @@
 package petrovskyi;
 
+import petrovskyi.cache.SharedLineCountCache;
+import petrovskyi.checker.GeneratedSourceChecker;
 import petrovskyi.checker.PathChecker;
+import petrovskyi.checker.SourceFileGuard;
+import petrovskyi.counter.AsyncLineCounter;
+import petrovskyi.counter.CachingLineCounter;
+import petrovskyi.counter.ExecutorLineCounter;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.counter.LexerCheckpointStore;
 import petrovskyi.counter.LineCounter;
-import petrovskyi.counter.SourceCodeLineCounter;
+import petrovskyi.counter.PackageAggregator;
+import petrovskyi.entity.ApplicationArguments;
+import petrovskyi.entity.GeneratedSourcePolicy;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.MultiRootStatistics;
+import petrovskyi.entity.OversizedSourcePolicy;
+import petrovskyi.entity.PackageStatistic;
+import petrovskyi.entity.RunMetrics;
 import petrovskyi.entity.SourceFileReportStatistic;
-import petrovskyi.replacer.CommentReplacer;
-import petrovskyi.replacer.Replacer;
+import petrovskyi.report.BinaryReporter;
+import petrovskyi.report.ConsoleDiffReporter;
 import petrovskyi.report.ConsoleReporter;
+import petrovskyi.report.DelimitedReporter;
+import petrovskyi.report.HistogramReporter;
+import petrovskyi.report.HtmlTreemapReporter;
+import petrovskyi.report.JsonReporter;
+import petrovskyi.report.NdjsonReporter;
+import petrovskyi.report.OpenMetricsReporter;
 import petrovskyi.report.Reporter;
+import petrovskyi.report.StreamingReporter;
+import petrovskyi.report.TopReporter;
+import petrovskyi.service.ArchiveStatisticService;
 import petrovskyi.service.FileDirectoryService;
 import petrovskyi.service.FileStatisticService;
+import petrovskyi.service.IncrementalStatisticService;
+import petrovskyi.service.ManifestStatisticService;
+import petrovskyi.service.SnapshotDiffService;
+import petrovskyi.service.SnapshotService;
+import petrovskyi.service.StreamingStatisticService;
+import petrovskyi.service.TarStatisticService;
+import petrovskyi.util.ArgumentParser;
+import petrovskyi.worker.ArchiveCountJavaSourceCodeLinesWorker;
+import petrovskyi.worker.AsyncCountJavaSourceCodeLinesWorker;
 import petrovskyi.worker.CountJavaSourceCodeLinesWorker;
+import petrovskyi.worker.IncrementalCountJavaSourceCodeLinesWorker;
+import petrovskyi.worker.ManifestCountJavaSourceCodeLinesWorker;
+import petrovskyi.worker.MultiRootCountJavaSourceCodeLinesWorker;
+import petrovskyi.worker.StreamingCountJavaSourceCodeLinesWorker;
 
+import java.io.BufferedInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class Application {
     private static final String JAVA_EXTENSION = ".java";
+    private static final String STDIN_PATH = "-";
+    private static final Path STDIN_ROOT = Paths.get("stdin");
+    private static final String SNAPSHOT_OPTION = "snapshot";
+    private static final String TOTALS_OPTION = "totals";
+    private static final String DIFF_OPTION = "diff";
+    private static final String CACHE_OPTION = "cache";
+    private static final String CHECKPOINT_INTERVAL_OPTION = "checkpoint-interval";
+    private static final String FILES_FROM_OPTION = "files-from";
+    private static final String NULL_OPTION = "null";
+    private static final String GENERATED_OPTION = "generated";
+    private static final String MAX_SIZE_OPTION = "max-size";
+    private static final String OVERSIZED_OPTION = "oversized";
+    private static final String ASYNC_READS_OPTION = "async-reads";
+    private static final String THREADS_OPTION = "threads";
+    private static final String STREAM_OPTION = "stream";
+    private static final String FORMAT_OPTION = "format";
+    private static final String OUTPUT_OPTION = "output";
+    private static final String CONSOLE_FORMAT = "console";
+    private static final String JSON_FORMAT = "json";
+    private static final String NDJSON_FORMAT = "ndjson";
+    private static final String CSV_FORMAT = "csv";
+    private static final String TSV_FORMAT = "tsv";
+    private static final String BINARY_FORMAT = "binary";
+    private static final String HTML_FORMAT = "html";
+    private static final String AGGREGATE_BELOW_OPTION = "aggregate-below";
+    private static final String OPENMETRICS_FORMAT = "openmetrics";
+    private static final String METRICS_DEPTH_OPTION = "metrics-depth";
+    private static final String TOP_OPTION = "top";
+    private static final String PACKAGES_OPTION = "packages";
+    private static final String HISTOGRAM_OPTION = "histogram";
+
+    private static long startNanos;
 
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Please, provide file or folder path to process.");
+        startNanos = System.nanoTime();
+        ApplicationArguments arguments = ArgumentParser.parse(args);
+        if (arguments.hasOption(TOTALS_OPTION) && arguments.hasOption(SNAPSHOT_OPTION)) {
+            printSnapshotTotals(Paths.get(arguments.getOption(SNAPSHOT_OPTION)).toAbsolutePath());
+            return;
+        }
+
+        if (arguments.hasOption(DIFF_OPTION)) {
+            if (arguments.getPaths().size() != 2) {
+                System.out.println("Please, provide previous and current snapshot paths to compare.");
+                return;
+            }
+
+            printSnapshotDifferences(Paths.get(arguments.getPaths().get(0)).toAbsolutePath(),
+                    Paths.get(arguments.getPaths().get(1)).toAbsolutePath());
+            return;
+        }
+
+        if (arguments.hasOption(PACKAGES_OPTION) && arguments.hasOption(SNAPSHOT_OPTION)) {
+            System.out.println("The --packages option cannot be combined with --snapshot: unchanged files are not lexed again.");
+            return;
+        }
+        if (arguments.hasOption(PACKAGES_OPTION) && arguments.hasOption(CACHE_OPTION)) {
+            System.err.println("Warning: cached counts know no package, --cache is not used with --packages.");
+        }
+
+        if (arguments.hasOption(CHECKPOINT_INTERVAL_OPTION)
+                && !arguments.hasOption(CACHE_OPTION) && !arguments.hasOption(SNAPSHOT_OPTION)) {
+            System.out.println("Please, provide --cache or --snapshot to keep the lexer checkpoints next to.");
+            return;
+        }
+
+        if (arguments.hasOption(FILES_FROM_OPTION)) {
+            if (arguments.getPaths().size() > 1) {
+                System.out.println("Please, provide at most one root folder for the manifest paths.");
+                return;
+            }
+
+            Path root = Paths.get(arguments.getPaths().isEmpty() ? "" : arguments.getPaths().get(0)).toAbsolutePath().normalize();
+            if (!Files.isDirectory(root)) {
+                System.out.println("The specified path failed validation");
+                return;
+            }
+
+            printManifestStatistics(arguments, root);
             return;
         }
 
-        Path filenamePath = Paths.get(args[0]).toAbsolutePath();
+        if (arguments.getPaths().isEmpty()) {
+            System.out.println("Please, provide file or folder path to process (or '-' to read a source or an archive from stdin).");
+            return;
+        }
 
-        if (!new PathChecker(filenamePath, ".java").check()) {
+        if (arguments.getPaths().size() > 1) {
+            printMultiRootStatistics(arguments);
+            return;
+        }
+
+        boolean fromStdin = STDIN_PATH.equals(arguments.getPaths().get(0));
+        Path filenamePath = fromStdin ? STDIN_ROOT : Paths.get(arguments.getPaths().get(0)).toAbsolutePath();
+
+        if (!fromStdin && !new PathChecker(filenamePath, JAVA_EXTENSION).check()) {
             System.out.println("The specified path failed validation");
             return;
         }
 
-        Replacer replacer = new CommentReplacer();
-        LineCounter lineCounter = new SourceCodeLineCounter(replacer);
-        FileStatisticService fileStatisticService = new FileStatisticService(lineCounter);
+        SharedLineCountCache cache = arguments.hasOption(CACHE_OPTION)
+                ? openCache(Paths.get(arguments.getOption(CACHE_OPTION)).toAbsolutePath())
+                : null;
+        LexerCheckpointStore checkpointStore = openCheckpointStore(arguments);
+        PackageAggregator packageAggregator = arguments.hasOption(PACKAGES_OPTION) ? new PackageAggregator() : null;
+
+        List<SourceFileReportStatistic> statistics;
+        Supplier<RunMetrics> runMetrics;
+        try {
+            Path cacheBase = Files.isDirectory(filenamePath) ? filenamePath : filenamePath.toAbsolutePath().getParent();
+            LineCounter cachedLineCounter = newLineCounter(arguments, cache, cacheBase, checkpointStore, packageAggregator);
+            LineCounter lineCounter = arguments.hasOption(ASYNC_READS_OPTION)
+                    ? new AsyncLineCounter(Integer.parseInt(arguments.getOption(ASYNC_READS_OPTION)), cachedLineCounter, packageAggregator)
+                    : cachedLineCounter;
+            runMetrics = () -> newRunMetrics(lineCounter, cachedLineCounter);
+
+            if (arguments.hasOption(STREAM_OPTION) && !fromStdin && !isArchiveFile(filenamePath)) {
+                StreamingStatisticService streamingStatisticService = new StreamingStatisticService(JAVA_EXTENSION,
+                        newFileStatisticService(arguments, lineCounter),
+                        lineCounter instanceof AsyncLineCounter ? (AsyncLineCounter) lineCounter : null);
+                StreamingCountJavaSourceCodeLinesWorker streamingWorker =
+                        new StreamingCountJavaSourceCodeLinesWorker(streamingStatisticService);
+                WritableByteChannel output = openOutput(arguments);
+                try {
+                    streamingWorker.getStatistics(filenamePath, newReporter(arguments, output, runMetrics));
+                } finally {
+                    closeOutput(arguments, output);
+                }
+                printPackageStatistics(packageAggregator);
+                return;
+            }
+
+            statistics = fromStdin
+                    ? getStdinStatistics(filenamePath, lineCounter)
+                    : getStatistics(filenamePath, arguments, lineCounter);
+        } finally {
+            closeCache(cache);
+            closeCheckpointStore(checkpointStore);
+        }
+
+        writeReport(arguments, statistics, runMetrics);
+        printPackageStatistics(packageAggregator);
+    }
+
+    private static void printManifestStatistics(ApplicationArguments arguments, Path root) {
+        String manifest = arguments.getOption(FILES_FROM_OPTION);
+        byte delimiter = arguments.hasOption(NULL_OPTION)
+                ? ManifestStatisticService.NUL_DELIMITER
+                : ManifestStatisticService.NEWLINE_DELIMITER;
+
+        SharedLineCountCache cache = arguments.hasOption(CACHE_OPTION)
+                ? openCache(Paths.get(arguments.getOption(CACHE_OPTION)).toAbsolutePath())
+                : null;
+        LexerCheckpointStore checkpointStore = openCheckpointStore(arguments);
+        PackageAggregator packageAggregator = arguments.hasOption(PACKAGES_OPTION) ? new PackageAggregator() : null;
+
+        List<SourceFileReportStatistic> statistics;
+        Supplier<RunMetrics> runMetrics;
+        try {
+            LineCounter lineCounter = newLineCounter(arguments, cache, root, checkpointStore, packageAggregator);
+            runMetrics = () -> newRunMetrics(lineCounter, lineCounter);
+
+            ManifestCountJavaSourceCodeLinesWorker manifestWorker =
+                    new ManifestCountJavaSourceCodeLinesWorker(new ManifestStatisticService(JAVA_EXTENSION,
+                            newFileStatisticService(arguments, lineCounter)));
+            statistics = STDIN_PATH.equals(manifest)
+                    ? manifestWorker.getStatistics(System.in, root, delimiter)
+                    : manifestWorker.getStatistics(Paths.get(manifest).toAbsolutePath(), root, delimiter);
+        } finally {
+            closeCache(cache);
+            closeCheckpointStore(checkpointStore);
+        }
+
+        writeReport(arguments, statistics, runMetrics);
+        printPackageStatistics(packageAggregator);
+    }
+
+    private static List<SourceFileReportStatistic> getStdinStatistics(Path filenamePath, LineCounter lineCounter) {
+        InputStream inputStream = new BufferedInputStream(System.in);
+        boolean isArchive;
+        try {
+            isArchive = ArchiveCountJavaSourceCodeLinesWorker.isArchive(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to read stdin", e);
+        }
+
+        if (isArchive) {
+            return newArchiveWorker(lineCounter).getStatistics(inputStream, filenamePath);
+        }
+
+        SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+        statistic.setPath(filenamePath);
+        statistic.setDepth(0);
+        statistic.setDirectory(false);
+        statistic.setLinesNumber(lineCounter.count(inputStream));
+
+        return Collections.singletonList(statistic);
+    }
+
+    private static List<SourceFileReportStatistic> getStatistics(Path filenamePath,
+                                                                 ApplicationArguments arguments,
+                                                                 LineCounter lineCounter) {
+        if (isArchiveFile(filenamePath)) {
+            return newArchiveWorker(lineCounter).getStatistics(filenamePath);
+        }
+
+        if (arguments.hasOption(SNAPSHOT_OPTION)) {
+            Path snapshotPath = Paths.get(arguments.getOption(SNAPSHOT_OPTION)).toAbsolutePath();
+            IncrementalStatisticService incrementalStatisticService =
+                    new IncrementalStatisticService(JAVA_EXTENSION, newFileStatisticService(arguments, lineCounter));
+
+            IncrementalCountJavaSourceCodeLinesWorker incrementalWorker =
+                    new IncrementalCountJavaSourceCodeLinesWorker(new SnapshotService(), incrementalStatisticService, snapshotPath);
+            return incrementalWorker.getStatistics(filenamePath);
+        }
 
         FileDirectoryService fileDirectoryService = new FileDirectoryService(JAVA_EXTENSION);
 
+        if (lineCounter instanceof AsyncLineCounter) {
+            AsyncLineCounter asyncLineCounter = (AsyncLineCounter) lineCounter;
+            FileStatisticService fileStatisticService = newFileStatisticService(arguments, asyncLineCounter);
+
+            AsyncCountJavaSourceCodeLinesWorker asyncWorker =
+                    new AsyncCountJavaSourceCodeLinesWorker(fileDirectoryService, fileStatisticService, asyncLineCounter);
+            return asyncWorker.getStatistics(filenamePath);
+        }
+
+        FileStatisticService fileStatisticService = newFileStatisticService(arguments, lineCounter);
+
         CountJavaSourceCodeLinesWorker countJavaSourceCodeLinesWorker =
                 new CountJavaSourceCodeLinesWorker(fileDirectoryService, fileStatisticService);
-        List<SourceFileReportStatistic> statistics = countJavaSourceCodeLinesWorker.getStatistics(filenamePath);
+        return countJavaSourceCodeLinesWorker.getStatistics(filenamePath);
+    }
+
+    private static void printMultiRootStatistics(ApplicationArguments arguments) {
+        for (String option : Arrays.asList(ASYNC_READS_OPTION, SNAPSHOT_OPTION, STREAM_OPTION)) {
+            if (arguments.hasOption(option)) {
+                System.out.println("The --" + option + " option takes a single path");
+                return;
+            }
+        }
+
+        List<Path> roots = new ArrayList<>();
+        for (String path : arguments.getPaths()) {
+            Path root = Paths.get(path).toAbsolutePath();
+            if (!new PathChecker(root, JAVA_EXTENSION).check()) {
+                System.out.println("The specified path failed validation");
+                return;
+            }
+            roots.add(root);
+        }
+
+        int threads = arguments.hasOption(THREADS_OPTION)
+                ? Integer.parseInt(arguments.getOption(THREADS_OPTION))
+                : Runtime.getRuntime().availableProcessors();
+        SharedLineCountCache cache = arguments.hasOption(CACHE_OPTION)
+                ? openCache(Paths.get(arguments.getOption(CACHE_OPTION)).toAbsolutePath())
+                : null;
+        LexerCheckpointStore checkpointStore = openCheckpointStore(arguments);
+        PackageAggregator packageAggregator = arguments.hasOption(PACKAGES_OPTION) ? new PackageAggregator() : null;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        MultiRootStatistics multiRootStatistics;
+        Supplier<RunMetrics> runMetrics;
+        try {
+            LineCounter lineCounter = newLineCounter(arguments, cache, Paths.get("").toAbsolutePath(), checkpointStore,
+                    packageAggregator);
+            runMetrics = () -> newRunMetrics(lineCounter, lineCounter);
+            ExecutorLineCounter executorLineCounter = new ExecutorLineCounter(lineCounter, executorService);
 
-        Reporter reporter = new ConsoleReporter();
-        reporter.write(statistics);
+            MultiRootCountJavaSourceCodeLinesWorker multiRootWorker = new MultiRootCountJavaSourceCodeLinesWorker(
+                    new FileDirectoryService(JAVA_EXTENSION), newFileStatisticService(arguments, executorLineCounter),
+                    executorLineCounter, newArchiveWorker(lineCounter), executorService);
+            multiRootStatistics = multiRootWorker.getStatistics(roots);
+        } finally {
+            executorService.shutdown();
+            closeCache(cache);
+            closeCheckpointStore(checkpointStore);
+        }
+
+        if (!CONSOLE_FORMAT.equals(getFormat(arguments)) || arguments.hasOption(TOP_OPTION)
+                || arguments.hasOption(HISTOGRAM_OPTION)) {
+            writeReport(arguments, multiRootStatistics.getCombinedStatistics(), runMetrics);
+            printPackageStatistics(packageAggregator);
+            return;
+        }
+
+        WritableByteChannel output = openOutput(arguments);
+        try {
+            Reporter reporter = new ConsoleReporter(output);
+            for (List<SourceFileReportStatistic> statistics : multiRootStatistics.getRootToStatistics().values()) {
+                reporter.write(statistics);
+            }
+            reporter.write(multiRootStatistics.getCombinedStatistics().stream()
+                    .filter(statistic -> statistic.getDepth() <= 1)
+                    .collect(Collectors.toList()));
+        } finally {
+            closeOutput(arguments, output);
+        }
+        printPackageStatistics(packageAggregator);
     }
 
-}
\ No newline at end of file
+    private static void printPackageStatistics(PackageAggregator packageAggregator) {
+        if (packageAggregator == null) {
+            return;
+        }
+
+        System.out.println("Packages:");
+        for (PackageStatistic statistic : packageAggregator.getStatistics()) {
+            System.out.println(" " + (statistic.getPackageName().isEmpty() ? "(default package)" : statistic.getPackageName())
+                    + " : " + statistic.getLinesNumber()
+                    + " (" + statistic.getFilesNumber() + (statistic.getFilesNumber() == 1 ? " file)" : " files)"));
+        }
+    }
+
+    private static void writeReport(ApplicationArguments arguments, List<SourceFileReportStatistic> statistics,
+                                    Supplier<RunMetrics> runMetrics) {
+        WritableByteChannel output = openOutput(arguments);
+        try {
+            newReporter(arguments, output, runMetrics).write(statistics);
+        } finally {
+            closeOutput(arguments, output);
+        }
+    }
+
+    private static String getFormat(ApplicationArguments arguments) {
+        return arguments.hasOption(FORMAT_OPTION) ? arguments.getOption(FORMAT_OPTION) : CONSOLE_FORMAT;
+    }
+
+    private static StreamingReporter newReporter(ApplicationArguments arguments, WritableByteChannel output,
+                                                 Supplier<RunMetrics> runMetrics) {
+        if (arguments.hasOption(TOP_OPTION)) {
+            return new TopReporter(output, Integer.parseInt(arguments.getOption(TOP_OPTION)));
+        }
+        if (arguments.hasOption(HISTOGRAM_OPTION)) {
+            return new HistogramReporter(output);
+        }
+
+        switch (getFormat(arguments)) {
+            case CONSOLE_FORMAT:
+                return new ConsoleReporter(output);
+            case JSON_FORMAT:
+                return new JsonReporter(output);
+            case NDJSON_FORMAT:
+                return new NdjsonReporter(output);
+            case CSV_FORMAT:
+                return new DelimitedReporter(output, DelimitedReporter.CSV_DELIMITER);
+            case TSV_FORMAT:
+                return new DelimitedReporter(output, DelimitedReporter.TSV_DELIMITER);
+            case BINARY_FORMAT:
+                return new BinaryReporter(output);
+            case HTML_FORMAT:
+                return new HtmlTreemapReporter(output, getAggregationThreshold(arguments));
+            case OPENMETRICS_FORMAT:
+                return newOpenMetricsReporter(arguments, output, runMetrics);
+            default:
+                throw new IllegalArgumentException("Unknown report format " + getFormat(arguments));
+        }
+    }
+
+    private static OpenMetricsReporter newOpenMetricsReporter(ApplicationArguments arguments, WritableByteChannel output,
+                                                              Supplier<RunMetrics> runMetrics) {
+        int maxDepth = arguments.hasOption(METRICS_DEPTH_OPTION) ? Integer.parseInt(arguments.getOption(METRICS_DEPTH_OPTION)) : 1;
+        return arguments.hasOption(OUTPUT_OPTION)
+                ? new OpenMetricsReporter(Paths.get(arguments.getOption(OUTPUT_OPTION)).toAbsolutePath(), maxDepth, runMetrics)
+                : new OpenMetricsReporter(output, maxDepth, runMetrics);
+    }
+
+    private static RunMetrics newRunMetrics(LineCounter lineCounter, LineCounter cachedLineCounter) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (cachedLineCounter instanceof CachingLineCounter) {
+            CachingLineCounter cachingLineCounter = (CachingLineCounter) cachedLineCounter;
+            return new RunMetrics(durationMillis, lineCounter.getReadBytes(),
+                    cachingLineCounter.getHits(), cachingLineCounter.getMisses());
+        }
+
+        return new RunMetrics(durationMillis, lineCounter.getReadBytes(), 0, 0);
+    }
+
+    private static int getAggregationThreshold(ApplicationArguments arguments) {
+        return arguments.hasOption(AGGREGATE_BELOW_OPTION) ? Integer.parseInt(arguments.getOption(AGGREGATE_BELOW_OPTION)) : 0;
+    }
+
+    private static boolean isFileOutput(ApplicationArguments arguments) {
+        // the metrics file is renamed into place by its reporter, opening it here would truncate it early
+        return arguments.hasOption(OUTPUT_OPTION) && !OPENMETRICS_FORMAT.equals(getFormat(arguments));
+    }
+
+    private static WritableByteChannel openOutput(ApplicationArguments arguments) {
+        if (!isFileOutput(arguments)) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+
+        Path outputPath = Paths.get(arguments.getOption(OUTPUT_OPTION)).toAbsolutePath();
+        try {
+            return FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to open report output " + outputPath, e);
+        }
+    }
+
+    private static void closeOutput(ApplicationArguments arguments, WritableByteChannel output) {
+        if (!isFileOutput(arguments)) {
+            return; // standard output stays open
+        }
+
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to close report output", e);
+        }
+    }
+
+    private static boolean isArchiveFile(Path filenamePath) {
+        return Files.isRegularFile(filenamePath) && ArchiveCountJavaSourceCodeLinesWorker.isArchive(filenamePath);
+    }
+
+    private static FileStatisticService newFileStatisticService(ApplicationArguments arguments, LineCounter lineCounter) {
+        return new FileStatisticService(lineCounter,
+                new GeneratedSourceChecker(), getGeneratedSourcePolicy(arguments), getSourceFileGuard(arguments));
+    }
+
+    private static GeneratedSourcePolicy getGeneratedSourcePolicy(ApplicationArguments arguments) {
+        if (!arguments.hasOption(GENERATED_OPTION)) {
+            return GeneratedSourcePolicy.COUNT;
+        }
+
+        try {
+            return GeneratedSourcePolicy.valueOf(arguments.getOption(GENERATED_OPTION).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown generated sources policy " + arguments.getOption(GENERATED_OPTION) +
+                    ", expected one of " + Arrays.toString(GeneratedSourcePolicy.values()), e);
+        }
+    }
+
+    private static SourceFileGuard getSourceFileGuard(ApplicationArguments arguments) {
+        if (!arguments.hasOption(MAX_SIZE_OPTION)) {
+            return null; // files are not opened before counting, the counters stream any size
+        }
+
+        OversizedSourcePolicy oversizedSourcePolicy = OversizedSourcePolicy.STREAM;
+        if (arguments.hasOption(OVERSIZED_OPTION)) {
+            try {
+                oversizedSourcePolicy = OversizedSourcePolicy.valueOf(arguments.getOption(OVERSIZED_OPTION).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown oversized sources policy " + arguments.getOption(OVERSIZED_OPTION) +
+                        ", expected one of " + Arrays.toString(OversizedSourcePolicy.values()), e);
+            }
+        }
+
+        return new SourceFileGuard(parseSize(arguments.getOption(MAX_SIZE_OPTION)), oversizedSourcePolicy);
+    }
+
+    private static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        long multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1024;
+        } else if (value.endsWith("m")) {
+            multiplier = 1024 * 1024;
+        } else if (value.endsWith("g")) {
+            multiplier = 1024 * 1024 * 1024;
+        }
+        if (multiplier > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+
+        return Long.parseLong(value) * multiplier;
+    }
+
+    /**
+     * @param cacheBase directory the cache keys are relative to: the root of a single path or manifest run,
+     *                  the working directory of a multi-root run
+     */
+    private static LineCounter newLineCounter(ApplicationArguments arguments, SharedLineCountCache cache, Path cacheBase,
+                                              LexerCheckpointStore checkpointStore, PackageAggregator packageAggregator) {
+        JavaSourceLineCounter javaSourceLineCounter = checkpointStore == null
+                ? new JavaSourceLineCounter(packageAggregator)
+                : new JavaSourceLineCounter((int) parseSize(arguments.getOption(CHECKPOINT_INTERVAL_OPTION)), checkpointStore,
+                packageAggregator);
+        if (packageAggregator != null) {
+            return javaSourceLineCounter; // cached counts know no package, every source is lexed
+        }
+
+        LineCounter lineCounter = javaSourceLineCounter;
+        return cache == null ? lineCounter : new CachingLineCounter(lineCounter, cache, cacheBase);
+    }
+
+    /**
+     * --generated and --max-size are not applied to archive members, see {@link ArchiveCountJavaSourceCodeLinesWorker}.
+     */
+    private static ArchiveCountJavaSourceCodeLinesWorker newArchiveWorker(LineCounter lineCounter) {
+        return new ArchiveCountJavaSourceCodeLinesWorker(new ArchiveStatisticService(JAVA_EXTENSION, lineCounter),
+                new TarStatisticService(JAVA_EXTENSION, lineCounter));
+    }
+
+    private static SharedLineCountCache openCache(Path cachePath) {
+        try {
+            return new SharedLineCountCache(cachePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to open cache " + cachePath, e);
+        }
+    }
+
+    /**
+     * Checkpoints are kept next to the cache or, without one, next to the snapshot.
+     */
+    private static LexerCheckpointStore openCheckpointStore(ApplicationArguments arguments) {
+        if (!arguments.hasOption(CHECKPOINT_INTERVAL_OPTION)) {
+            return null;
+        }
+
+        Path path = Paths.get(arguments.getOption(arguments.hasOption(CACHE_OPTION) ? CACHE_OPTION : SNAPSHOT_OPTION))
+                .toAbsolutePath();
+        return new LexerCheckpointStore(path.resolveSibling(path.getFileName() + ".checkpoints"));
+    }
+
+    private static void closeCheckpointStore(LexerCheckpointStore checkpointStore) {
+        if (checkpointStore == null) {
+            return;
+        }
+
+        try {
+            checkpointStore.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to save lexer checkpoints", e);
+        }
+    }
+
+    private static void closeCache(SharedLineCountCache cache) {
+        if (cache == null) {
+            return;
+        }
+
+        try {
+            cache.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to save cache", e);
+        }
+    }
+
+    private static void printSnapshotTotals(Path snapshotPath) {
+        MappedSnapshot snapshot = loadSnapshot(snapshotPath);
+
+        System.out.println(snapshot.getRoot() + " : " + snapshot.getTotalLinesNumber() +
+                " (files: " + snapshot.getFilesNumber() + ", directories: " + snapshot.getDirectoriesNumber() + ")");
+    }
+
+    private static void printSnapshotDifferences(Path previousSnapshotPath, Path currentSnapshotPath) {
+        MappedSnapshot previous = loadSnapshot(previousSnapshotPath);
+        MappedSnapshot current = loadSnapshot(currentSnapshotPath);
+
+        Path currentRoot = Paths.get(current.getRoot()).getFileName();
+        ConsoleDiffReporter diffReporter = new ConsoleDiffReporter(currentRoot == null ? current.getRoot() : currentRoot.toString());
+        new SnapshotDiffService().diff(previous, current, diffReporter);
+        diffReporter.finish();
+    }
+
+    private static MappedSnapshot loadSnapshot(Path snapshotPath) {
+        try {
+            return new SnapshotService().load(snapshotPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to load snapshot " + snapshotPath, e);
+        }
+    }
+}
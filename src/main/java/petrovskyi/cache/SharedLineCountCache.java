@@ -0,0 +1,315 @@
+package petrovskyi.cache;
+
+import lombok.Data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Line counts keyed by (path, size, mtime), shared by every process that opens the same cache file.
+ * <p>
+ * The cache file is an append only log of checksummed records. Readers never lock: they read the records
+ * appended since their last look and stop at the first incomplete or damaged one. Writers append batches
+ * and compact the log while holding an exclusive {@link FileLock} on a sibling ".lock" file.
+ * Compaction writes a new log and renames it over the old one, so a reader that still has the old
+ * file open keeps a consistent view and switches to the new file on its next refresh.
+ * <pre>
+ * record : payload length (int), size, last modified (long each), lines (int), path (UTF-8), CRC32 of payload (int)
+ * </pre>
+ */
+public class SharedLineCountCache implements Closeable {
+    private static final int MAX_PENDING_RECORDS = 1024;
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+    private static final int FIXED_PAYLOAD_SIZE = 20;
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+    private static final int READ_CHUNK_SIZE = 1024 * 1024; // holds at least one record of the maximum size
+    private static final Map<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path logPath;
+    private final Path lockPath;
+    private final ReentrantLock processLock;
+    private final Map<String, CacheEntry> pathToEntry = new ConcurrentHashMap<>();
+    private final List<ByteBuffer> pendingRecords = new ArrayList<>();
+
+    private FileChannel readChannel;
+    // written under the monitor only, read without it to tell whether a refresh has anything to do
+    private volatile Object readFileKey;
+    private volatile long readSize = -1;
+    private volatile long readOffset;
+
+    public SharedLineCountCache(Path logPath) throws IOException {
+        this.logPath = logPath.toAbsolutePath();
+        this.lockPath = this.logPath.resolveSibling(this.logPath.getFileName() + ".lock");
+        this.processLock = PROCESS_LOCKS.computeIfAbsent(this.logPath, path -> new ReentrantLock());
+        refresh();
+    }
+
+    public Integer get(String path, long size, long lastModified) throws IOException {
+        CacheEntry entry = pathToEntry.get(path);
+        if ((entry == null || !entry.matches(size, lastModified)) && isChanged()) {
+            refresh();
+            entry = pathToEntry.get(path);
+        }
+
+        return entry != null && entry.matches(size, lastModified) ? entry.getLinesNumber() : null;
+    }
+
+    public void put(String path, long size, long lastModified, int linesNumber) throws IOException {
+        pathToEntry.put(path, new CacheEntry(size, lastModified, linesNumber));
+
+        boolean flushNeeded;
+        synchronized (pendingRecords) {
+            pendingRecords.add(encode(path, size, lastModified, linesNumber));
+            flushNeeded = pendingRecords.size() >= MAX_PENDING_RECORDS;
+        }
+        if (flushNeeded) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        List<ByteBuffer> records;
+        synchronized (pendingRecords) {
+            if (pendingRecords.isEmpty()) {
+                return;
+            }
+            records = new ArrayList<>(pendingRecords);
+            pendingRecords.clear();
+        }
+
+        processLock.lock();
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock fileLock = lockChannel.lock();
+            try {
+                long validLength = refresh();
+
+                try (FileChannel writeChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    if (writeChannel.size() > validLength) {
+                        writeChannel.truncate(validLength); // drop the torn tail of a writer that died mid-append
+                    }
+                    writeChannel.position(validLength);
+                    for (ByteBuffer record : records) {
+                        while (record.hasRemaining()) {
+                            writeChannel.write(record);
+                        }
+                    }
+                }
+
+                refresh();
+                compactIfNeeded();
+            } finally {
+                fileLock.release();
+            }
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                if (readChannel != null) {
+                    readChannel.close();
+                    readChannel = null;
+                }
+            }
+        }
+    }
+
+    int getEntriesNumber() {
+        return pathToEntry.size();
+    }
+
+    /**
+     * Whether the log was appended to or replaced since the last refresh, checked without taking the monitor.
+     */
+    private boolean isChanged() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(logPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        return attributes.size() != readSize || !Objects.equals(attributes.fileKey(), readFileKey);
+    }
+
+    /**
+     * Reads the records appended since the last refresh, reopening the log if it was replaced by a compaction.
+     *
+     * @return end offset of the last complete record
+     */
+    synchronized long refresh() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(logPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        boolean replaced = readChannel == null
+                || attributes.fileKey() == null && attributes.size() < readOffset
+                || attributes.fileKey() != null && !Objects.equals(attributes.fileKey(), readFileKey);
+        if (replaced) {
+            if (readChannel != null) {
+                readChannel.close();
+            }
+            readChannel = FileChannel.open(logPath, StandardOpenOption.READ);
+            readFileKey = attributes.fileKey();
+            readOffset = 0;
+        }
+
+        long size = readChannel.size();
+        if (size > readOffset) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - readOffset, READ_CHUNK_SIZE));
+            while (size > readOffset) {
+                buffer.clear();
+                buffer.limit((int) Math.min(size - readOffset, buffer.capacity()));
+                while (buffer.hasRemaining() && readChannel.read(buffer, readOffset + buffer.position()) > 0) {
+                    // read up to the size seen above, later appends are picked up by the next refresh
+                }
+                buffer.flip();
+
+                int decodedLength = decodeRecords(buffer);
+                if (decodedLength == 0) {
+                    break; // torn or damaged record, a chunk always holds a whole valid one
+                }
+                readOffset += decodedLength;
+            }
+        }
+        readSize = size;
+
+        return readOffset;
+    }
+
+    private int decodeRecords(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        int validLength = 0;
+
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int payloadLength = buffer.getInt();
+            if (payloadLength < FIXED_PAYLOAD_SIZE || payloadLength > MAX_PAYLOAD_SIZE
+                    || buffer.remaining() < payloadLength + 4) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), payloadLength);
+            int checksum = buffer.getInt(buffer.position() + payloadLength);
+            if (checksum != (int) crc.getValue()) {
+                break;
+            }
+
+            long size = buffer.getLong();
+            long lastModified = buffer.getLong();
+            int linesNumber = buffer.getInt();
+            String path = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    payloadLength - FIXED_PAYLOAD_SIZE, StandardCharsets.UTF_8);
+            buffer.position(start + 4 + payloadLength + 4);
+
+            pathToEntry.put(path, new CacheEntry(size, lastModified, linesNumber));
+            validLength = buffer.position();
+        }
+
+        return validLength;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        long liveLength = 0;
+        for (String path : pathToEntry.keySet()) {
+            liveLength += 4 + FIXED_PAYLOAD_SIZE + utf8Length(path) + 4;
+        }
+        if (readOffset < MIN_COMPACTION_SIZE || readOffset < 2 * liveLength) {
+            return;
+        }
+
+        Path temporaryPath = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, CacheEntry> pathEntry : pathToEntry.entrySet()) {
+                CacheEntry entry = pathEntry.getValue();
+                ByteBuffer record = encode(pathEntry.getKey(), entry.getSize(), entry.getLastModified(), entry.getLinesNumber());
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+        }
+
+        Files.move(temporaryPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        refresh();
+    }
+
+    private static int utf8Length(String path) {
+        int length = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < path.length() && Character.isLowSurrogate(path.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private ByteBuffer encode(String path, long size, long lastModified, int linesNumber) {
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = FIXED_PAYLOAD_SIZE + pathBytes.length;
+        if (payloadLength > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Path is too long to be cached: " + path);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(4 + payloadLength + 4);
+        record.putInt(payloadLength);
+        record.putLong(size);
+        record.putLong(lastModified);
+        record.putInt(linesNumber);
+        record.put(pathBytes);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, payloadLength);
+        record.putInt((int) crc.getValue());
+
+        record.flip();
+        return record;
+    }
+
+    @Data
+    private static class CacheEntry {
+        private final long size;
+        private final long lastModified;
+        private final int linesNumber;
+
+        boolean matches(long size, long lastModified) {
+            return this.size == size && this.lastModified == lastModified;
+        }
+    }
+}
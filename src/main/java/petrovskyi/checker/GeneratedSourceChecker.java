@@ -0,0 +1,180 @@
+package petrovskyi.checker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Recognizes generated sources by the markers code generators put at the top of a file.
+ * Only the first {@code headSize} bytes are read, so the verdict costs one small read per file.
+ */
+public class GeneratedSourceChecker {
+    public static final int DEFAULT_HEAD_SIZE = 4 * 1024;
+    private static final byte[] GENERATED_ANNOTATION = bytes("Generated");
+    private static final byte[] TEXT_BLOCK_QUOTES = bytes("\"\"\"");
+    private static final byte[] PROTOBUF_MARKER = bytes("Generated by the protocol buffer compiler");
+    private static final byte[] CODE_GENERATED_MARKER = bytes("Code generated");
+    private static final byte[] DO_NOT_EDIT_MARKER = bytes("DO NOT EDIT");
+
+    private final int headSize;
+
+    public GeneratedSourceChecker() {
+        this(DEFAULT_HEAD_SIZE);
+    }
+
+    public GeneratedSourceChecker(int headSize) {
+        this.headSize = headSize;
+    }
+
+    public boolean isGenerated(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(headSize);
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                // a channel may return less than asked for
+            }
+
+            return isGenerated(head.array(), head.position());
+        }
+    }
+
+    public int getHeadSize() {
+        return headSize;
+    }
+
+    public boolean isGenerated(byte[] head, int length) {
+        length = Math.min(length, headSize);
+        if (hasGeneratedAnnotation(head, length) || indexOf(head, length, PROTOBUF_MARKER, 0) >= 0) {
+            return true;
+        }
+
+        // "Code generated ... DO NOT EDIT." has to be on one line
+        int from = 0;
+        int start;
+        while ((start = indexOf(head, length, CODE_GENERATED_MARKER, from)) >= 0) {
+            int lineEnd = start;
+            while (lineEnd < length && head[lineEnd] != '\n' && head[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            if (indexOf(head, lineEnd, DO_NOT_EDIT_MARKER, start + CODE_GENERATED_MARKER.length) >= 0) {
+                return true;
+            }
+            from = lineEnd;
+        }
+
+        return false;
+    }
+
+    // @Generated, @javax.annotation.Generated, @javax.annotation.processing.Generated and the like,
+    // but not @GeneratedValue and not an annotation mentioned in a comment or a string literal
+    private static boolean hasGeneratedAnnotation(byte[] head, int length) {
+        int i = 0;
+        while (i < length) {
+            byte b = head[i];
+            if (b == '/' && i + 1 < length && head[i + 1] == '/') {
+                i = skipLine(head, length, i + 2);
+            } else if (b == '/' && i + 1 < length && head[i + 1] == '*') {
+                i = skipBlockComment(head, length, i + 2);
+            } else if (b == '"' && startsWith(head, length, i, TEXT_BLOCK_QUOTES)) {
+                i = skipTextBlock(head, length, i + TEXT_BLOCK_QUOTES.length);
+            } else if (b == '"' || b == '\'') {
+                i = skipLiteral(head, length, i + 1, b);
+            } else if (b == '@') {
+                int lastSegment = i + 1;
+                int end = i + 1;
+                while (end < length && (isIdentifierPart(head[end]) || head[end] == '.')) {
+                    if (head[end] == '.') {
+                        lastSegment = end + 1;
+                    }
+                    end++;
+                }
+                // the name has to be followed by something, a head cut in the middle of a name proves nothing
+                if (end < length && end - lastSegment == GENERATED_ANNOTATION.length
+                        && startsWith(head, end, lastSegment, GENERATED_ANNOTATION)) {
+                    return true;
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+
+        return false;
+    }
+
+    private static int skipLine(byte[] bytes, int length, int from) {
+        int i = from;
+        while (i < length && bytes[i] != '\n' && bytes[i] != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipBlockComment(byte[] bytes, int length, int from) {
+        int i = from;
+        while (i < length && !(bytes[i] == '*' && i + 1 < length && bytes[i + 1] == '/')) {
+            i++;
+        }
+        return Math.min(i + 2, length);
+    }
+
+    private static int skipTextBlock(byte[] bytes, int length, int from) {
+        int i = from;
+        while (i < length && !startsWith(bytes, length, i, TEXT_BLOCK_QUOTES)) {
+            i += bytes[i] == '\\' ? 2 : 1;
+        }
+        return Math.min(i + TEXT_BLOCK_QUOTES.length, length);
+    }
+
+    private static int skipLiteral(byte[] bytes, int length, int from, byte quote) {
+        int i = from;
+        while (i < length && bytes[i] != quote && bytes[i] != '\n' && bytes[i] != '\r') {
+            i += bytes[i] == '\\' ? 2 : 1;
+        }
+        return Math.min(i + 1, length);
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        // bytes of a multi-byte UTF-8 sequence are negative and can only be part of a name here
+        return b < 0 || b == '_' || b == '$'
+                || (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int from, byte[] marker) {
+        if (from + marker.length > length) {
+            return false;
+        }
+        for (int j = 0; j < marker.length; j++) {
+            if (bytes[from + j] != marker[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int length, byte[] marker, int from) {
+        byte first = marker[0];
+        int last = length - marker.length;
+        for (int i = from; i <= last; i++) {
+            if (bytes[i] != first) {
+                continue;
+            }
+
+            int j = 1;
+            while (j < marker.length && bytes[i + j] == marker[j]) {
+                j++;
+            }
+            if (j == marker.length) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static byte[] bytes(String marker) {
+        return marker.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,6 +1,7 @@
 package petrovskyi.checker;
 
 import lombok.RequiredArgsConstructor;
+import petrovskyi.worker.ArchiveCountJavaSourceCodeLinesWorker;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -23,9 +24,11 @@ public class PathChecker implements Checker {
             return false;
         }
 
-        if (Files.isRegularFile(filenamePath) && !filenamePath.toString().endsWith(javaExtension)) {
+        if (Files.isRegularFile(filenamePath) && !filenamePath.toString().endsWith(javaExtension)
+                && !ArchiveCountJavaSourceCodeLinesWorker.isArchive(filenamePath)) {
             System.out.println("The file <" + filenamePath + "> is not java file. " +
-                    "Please, provide a file with java extension.");
+                    "Please, provide a file with java extension or an archive "
+                    + ArchiveCountJavaSourceCodeLinesWorker.ARCHIVE_EXTENSIONS + ".");
 
             return false;
         }
@@ -33,5 +36,4 @@ public class PathChecker implements Checker {
         return true;
     }
 
-
 }
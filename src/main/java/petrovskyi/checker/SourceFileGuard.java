@@ -0,0 +1,112 @@
+package petrovskyi.checker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.OversizedSourcePolicy;
+import petrovskyi.util.CharsetDetector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps mis-named binaries and huge fixtures away from the counters. The size comes from the open
+ * channel and only the first block is read to tell binary content from text, so the check is cheap
+ * whatever the file size is.
+ */
+@RequiredArgsConstructor
+public class SourceFileGuard {
+    public static final int HEAD_SIZE = 4 * 1024;
+    private static final int MAX_INVALID_UTF8_PERCENT = 10;
+
+    private final long maxSize;
+    private final OversizedSourcePolicy oversizedSourcePolicy;
+
+    public Verdict check(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(HEAD_SIZE, size));
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                // a channel may return less than asked for
+            }
+
+            return check(path, size, head.array(), head.position());
+        }
+    }
+
+    /**
+     * Decides on a file whose head was read by the caller, e.g. to share it with {@link GeneratedSourceChecker}.
+     */
+    public Verdict check(Path path, long size, byte[] head, int length) throws IOException {
+        if (isBinary(head, Math.min(length, HEAD_SIZE))) {
+            return Verdict.SKIP;
+        }
+
+        if (size <= maxSize) {
+            return Verdict.COUNT;
+        }
+
+        switch (oversizedSourcePolicy) {
+            case SKIP:
+                return Verdict.SKIP;
+            case STREAM:
+                return Verdict.STREAM;
+            default:
+                throw new IOException("The file " + path + " has " + size + " bytes, more than the maximum of " + maxSize);
+        }
+    }
+
+    /**
+     * Text other than UTF-16 never contains NUL bytes and mostly decodes as UTF-8; a few invalid bytes
+     * are tolerated for sources in single byte encodings with non-ASCII comments.
+     */
+    public static boolean isBinary(byte[] head, int length) {
+        if (!CharsetDetector.isByteCompatible(CharsetDetector.detect(head, length))) {
+            return false; // UTF-16 is full of NUL bytes
+        }
+
+        int invalidBytes = 0;
+        int i = 0;
+        while (i < length) {
+            int b = head[i] & 0xff;
+            if (b == 0) {
+                return true;
+            }
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int continuationBytes = b >= 0xc2 && b <= 0xdf ? 1 : b >= 0xe0 && b <= 0xef ? 2 : b >= 0xf0 && b <= 0xf4 ? 3 : -1;
+            if (continuationBytes < 0) {
+                invalidBytes++;
+                i++;
+                continue;
+            }
+            if (i + continuationBytes >= length) {
+                break; // sequence cut by the end of the head
+            }
+
+            int j = 1;
+            while (j <= continuationBytes && (head[i + j] & 0xc0) == 0x80) {
+                j++;
+            }
+            if (j <= continuationBytes) {
+                invalidBytes++;
+                i++;
+            } else {
+                i += j;
+            }
+        }
+
+        return invalidBytes * 100 > length * MAX_INVALID_UTF8_PERCENT;
+    }
+
+    public enum Verdict {
+        COUNT,
+        STREAM,
+        SKIP
+    }
+}
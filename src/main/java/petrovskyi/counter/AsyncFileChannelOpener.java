@@ -0,0 +1,9 @@
+package petrovskyi.counter;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+
+public interface AsyncFileChannelOpener {
+    AsynchronousFileChannel open(Path path) throws IOException;
+}
@@ -0,0 +1,302 @@
+package petrovskyi.counter;
+
+import petrovskyi.util.CharsetDetector;
+import petrovskyi.util.DirectBufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts files through {@link AsynchronousFileChannel} reads. Submitted files are read with at most
+ * {@code maxInFlight} reads outstanding and each chunk is lexed in the completion handler that received it,
+ * so no thread waits for slow storage. {@link #count(Path)} then only waits for the result of a submitted file
+ * and falls back to the given counter for anything else. Lines of sources read here are added to the optional
+ * {@link PackageAggregator}, the fallback counter is expected to share it. Sources that need decoding are handed
+ * to the fallback counter on {@code fallbackExecutor}, since it reads blocking and must not hold a handler thread.
+ */
+public class AsyncLineCounter implements LineCounter {
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int maxInFlight;
+    private final AsyncFileChannelOpener channelOpener;
+    private final LineCounter fallbackLineCounter;
+    private final Executor fallbackExecutor;
+    private final Map<Path, CompletableFuture<Integer>> pathToLinesNumber = new ConcurrentHashMap<>();
+    private final Queue<ReadTask> pending = new ConcurrentLinkedQueue<>();
+    private final DirectBufferPool bufferPool;
+    private final PackageAggregator packageAggregator;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger startRequests = new AtomicInteger();
+    private final LongAdder readBytes = new LongAdder();
+
+    public AsyncLineCounter(int maxInFlight, LineCounter fallbackLineCounter) {
+        this(maxInFlight, path -> AsynchronousFileChannel.open(path, StandardOpenOption.READ), fallbackLineCounter);
+    }
+
+    public AsyncLineCounter(int maxInFlight, AsyncFileChannelOpener channelOpener, LineCounter fallbackLineCounter) {
+        this(maxInFlight, channelOpener, fallbackLineCounter, new DirectBufferPool(BUFFER_SIZE, maxInFlight));
+    }
+
+    public AsyncLineCounter(int maxInFlight, AsyncFileChannelOpener channelOpener, LineCounter fallbackLineCounter,
+                            DirectBufferPool bufferPool) {
+        this(maxInFlight, channelOpener, fallbackLineCounter, bufferPool, null);
+    }
+
+    public AsyncLineCounter(int maxInFlight, LineCounter fallbackLineCounter, PackageAggregator packageAggregator) {
+        this(maxInFlight, path -> AsynchronousFileChannel.open(path, StandardOpenOption.READ), fallbackLineCounter,
+                new DirectBufferPool(BUFFER_SIZE, maxInFlight), packageAggregator);
+    }
+
+    public AsyncLineCounter(int maxInFlight, AsyncFileChannelOpener channelOpener, LineCounter fallbackLineCounter,
+                            DirectBufferPool bufferPool, PackageAggregator packageAggregator) {
+        this(maxInFlight, channelOpener, fallbackLineCounter, ForkJoinPool.commonPool(), bufferPool, packageAggregator);
+    }
+
+    public AsyncLineCounter(int maxInFlight, AsyncFileChannelOpener channelOpener, LineCounter fallbackLineCounter,
+                            Executor fallbackExecutor, DirectBufferPool bufferPool, PackageAggregator packageAggregator) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("The number of reads in flight must be positive, got " + maxInFlight);
+        }
+        if (bufferPool.getMaxBuffers() < maxInFlight) {
+            throw new IllegalArgumentException("A pool of " + bufferPool.getMaxBuffers() + " buffers cannot serve "
+                    + maxInFlight + " reads in flight");
+        }
+        this.maxInFlight = maxInFlight;
+        this.channelOpener = channelOpener;
+        this.fallbackLineCounter = fallbackLineCounter;
+        this.fallbackExecutor = fallbackExecutor;
+        this.bufferPool = bufferPool;
+        this.packageAggregator = packageAggregator;
+    }
+
+    /**
+     * Starts reading the files in the background, results are picked up with {@link #count(Path)}.
+     */
+    public void submit(Collection<Path> paths) {
+        for (Path path : paths) {
+            CompletableFuture<Integer> linesNumber = new CompletableFuture<>();
+            if (pathToLinesNumber.putIfAbsent(path, linesNumber) == null) {
+                pending.add(new ReadTask(path, linesNumber));
+            }
+        }
+        startReads();
+    }
+
+    public Map<Path, Integer> countAll(Collection<Path> paths) throws IOException {
+        submit(paths);
+
+        Map<Path, Integer> pathToCount = new LinkedHashMap<>();
+        for (Path path : paths) {
+            pathToCount.put(path, count(path));
+        }
+
+        return pathToCount;
+    }
+
+    @Override
+    public long getReadBytes() {
+        return readBytes.sum() + fallbackLineCounter.getReadBytes();
+    }
+
+    public DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public int count(InputStream inputStream) {
+        return fallbackLineCounter.count(inputStream);
+    }
+
+    @Override
+    public int count(Path path) throws IOException {
+        CompletableFuture<Integer> linesNumber = pathToLinesNumber.remove(path);
+        if (linesNumber == null) {
+            return fallbackLineCounter.count(path);
+        }
+
+        try {
+            return linesNumber.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while counting " + path);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while trying to count " + path, e.getCause());
+        }
+    }
+
+    /**
+     * Starts pending reads up to the limit. A read that fails right away finishes inside this loop and asks
+     * for another start; such requests are only counted and picked up by the loop already running, so a long
+     * run of unreadable files never nests calls.
+     */
+    private void startReads() {
+        if (startRequests.getAndIncrement() != 0) {
+            return;
+        }
+
+        int requests = 1;
+        do {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxInFlight) {
+                    break;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+
+                ReadTask readTask = pending.poll();
+                if (readTask == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                readTask.start();
+            }
+            requests = startRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void readFinished() {
+        inFlight.decrementAndGet();
+        startReads();
+    }
+
+    private class ReadTask implements CompletionHandler<Integer, Void> {
+        private final Path path;
+        private final CompletableFuture<Integer> linesNumber;
+        private final JavaSourceLexer lexer = new JavaSourceLexer();
+        private AsynchronousFileChannel channel;
+        private ByteBuffer buffer;
+        private long position;
+        private boolean finished;
+
+        private ReadTask(Path path, CompletableFuture<Integer> linesNumber) {
+            this.path = path;
+            this.linesNumber = linesNumber;
+        }
+
+        private void start() {
+            try {
+                buffer = bufferPool.acquire(); // never waits, the pool has a buffer for every read in flight
+                channel = channelOpener.open(path);
+            } catch (IOException | RuntimeException e) {
+                if (buffer != null) {
+                    bufferPool.release(buffer);
+                }
+                linesNumber.completeExceptionally(e);
+                readFinished();
+                return;
+            }
+
+            read();
+        }
+
+        private void read() {
+            try {
+                channel.read(buffer, position, null, this);
+            } catch (RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        /**
+         * Anything thrown here would be lost in the channel group, so it fails the file instead of leaving
+         * {@link #count(Path)} waiting for it.
+         */
+        @Override
+        public void completed(Integer read, Void attachment) {
+            try {
+                readCompleted(read);
+            } catch (RuntimeException | Error e) {
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            try {
+                finish();
+            } finally {
+                linesNumber.completeExceptionally(e);
+            }
+        }
+
+        private void readCompleted(int read) {
+            if (read < 0) {
+                finish();
+                if (packageAggregator != null) {
+                    packageAggregator.add(lexer.getPackageName(), lexer.getLinesNumber());
+                }
+                linesNumber.complete(lexer.getLinesNumber());
+                return;
+            }
+
+            buffer.flip();
+            if (position == 0) {
+                Charset charset = CharsetDetector.detect(buffer);
+                if (!CharsetDetector.isByteCompatible(charset)) {
+                    countDecoded();
+                    return;
+                }
+                buffer.position(CharsetDetector.bomLength(buffer));
+            }
+
+            lexer.lex(buffer);
+            position += read;
+            readBytes.add(read);
+            buffer.clear();
+            read();
+        }
+
+        private void countDecoded() {
+            finish();
+            fallbackExecutor.execute(() -> { // rare, decoding sources are read blocking
+                try {
+                    linesNumber.complete(fallbackLineCounter.count(path));
+                } catch (IOException | RuntimeException e) {
+                    linesNumber.completeExceptionally(e);
+                }
+            });
+        }
+
+        /**
+         * Gives the buffer and the read slot back once, however the file ends.
+         */
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the file was read already, nothing to recover
+            }
+            bufferPool.release(buffer);
+            readFinished();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package petrovskyi.counter;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.cache.SharedLineCountCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Looks counts up in a {@link SharedLineCountCache} before counting. Files under {@code baseDirectory} are keyed
+ * by their path relative to it, so checkouts of the same tree in other places share the counts; size and mtime
+ * still have to match. Files outside of it are keyed by their absolute path.
+ */
+@RequiredArgsConstructor
+public class CachingLineCounter implements LineCounter {
+    private final LineCounter lineCounter;
+    private final SharedLineCountCache cache;
+    private final Path baseDirectory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Override
+    public int count(InputStream inputStream) {
+        return lineCounter.count(inputStream);
+    }
+
+    @Override
+    public int count(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String key = getKey(path);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Integer cachedLinesNumber = cache.get(key, attributes.size(), lastModified);
+        if (cachedLinesNumber != null) {
+            hits.incrementAndGet();
+            return cachedLinesNumber;
+        }
+
+        misses.incrementAndGet();
+        int linesNumber = lineCounter.count(path);
+        cache.put(key, attributes.size(), lastModified, linesNumber);
+
+        return linesNumber;
+    }
+
+    @Override
+    public long getReadBytes() {
+        return lineCounter.getReadBytes();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private String getKey(Path path) {
+        Path absolutePath = path.toAbsolutePath();
+        if (!absolutePath.startsWith(baseDirectory)) {
+            return absolutePath.toString();
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (Path name : baseDirectory.relativize(absolutePath)) {
+            if (key.length() > 0) {
+                key.append('/');
+            }
+            key.append(name);
+        }
+
+        return key.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package petrovskyi.counter;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Counts submitted files with the given counter on a pool, so the files of one tree are counted by many threads.
+ * {@link #count(Path)} then only waits for the result of a submitted file and counts anything else itself.
+ * It must not be called from a task of the same pool, a full pool would wait for itself.
+ */
+@RequiredArgsConstructor
+public class ExecutorLineCounter implements LineCounter {
+    private final LineCounter lineCounter;
+    private final ExecutorService executorService;
+    private final Map<Path, Future<Integer>> pathToLinesNumber = new ConcurrentHashMap<>();
+
+    public void submit(Collection<Path> paths) {
+        for (Path path : paths) {
+            pathToLinesNumber.computeIfAbsent(path, key -> executorService.submit(() -> lineCounter.count(key)));
+        }
+    }
+
+    @Override
+    public int count(InputStream inputStream) {
+        return lineCounter.count(inputStream);
+    }
+
+    @Override
+    public int count(Path path) throws IOException {
+        Future<Integer> linesNumber = pathToLinesNumber.remove(path);
+        if (linesNumber == null) {
+            return lineCounter.count(path);
+        }
+
+        try {
+            return linesNumber.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while counting " + path);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while trying to count " + path, e.getCause());
+        }
+    }
+
+    @Override
+    public long getReadBytes() {
+        return lineCounter.getReadBytes();
+    }
+}
@@ -0,0 +1,214 @@
+package petrovskyi.counter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Push based lexer that counts lines containing code while the input is fed in chunks.
+ * It works on bytes for any ASCII compatible encoding, so no decoding is needed, and its whole
+ * state fits into a {@link LexerState}, so a scan can be stopped and resumed at any offset.
+ * <p>
+ * Counting follows {@link SourceCodeLineCounter}: line breaks inside block comments are removed
+ * together with the comment, so the code around such a comment ends up on one line.
+ * <p>
+ * The same scan captures the {@code package} declaration when it is the first code of the source.
+ */
+public class JavaSourceLexer {
+    static final int CODE = 0;
+    static final int SLASH = 1;
+    static final int LINE_COMMENT = 2;
+    static final int BLOCK_COMMENT = 3;
+    static final int BLOCK_COMMENT_STAR = 4;
+    static final int STRING = 5;
+    static final int STRING_ESCAPE = 6;
+    static final int CHARACTER = 7;
+    static final int CHARACTER_ESCAPE = 8;
+
+    // states of the package capture, the ones below PACKAGE_NAME count the matched keyword characters
+    static final int PACKAGE_NAME = 8;
+    static final int PACKAGE_FOUND = 9;
+    static final int PACKAGE_MISSING = 10;
+    private static final String PACKAGE_KEYWORD = "package";
+    private static final int MAX_PACKAGE_NAME_LENGTH = 1024;
+
+    private int state = CODE;
+    private boolean lineHasCode;
+    private int linesNumber;
+    private int packageState;
+    private StringBuilder packageName;
+    private boolean isByteInput;
+
+    public void lex(ByteBuffer buffer) {
+        isByteInput = true;
+        int limit = buffer.limit();
+        for (int i = buffer.position(); i < limit; i++) {
+            step(buffer.get(i) & 0xff);
+        }
+        buffer.position(limit);
+    }
+
+    public void lex(CharSequence chars) {
+        isByteInput = false;
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            step(chars.charAt(i));
+        }
+    }
+
+    public int getLinesNumber() {
+        return lineHasCode || state == SLASH ? linesNumber + 1 : linesNumber;
+    }
+
+    /**
+     * @return the declared package, an empty name for the default package
+     */
+    public String getPackageName() {
+        return packageState == PACKAGE_FOUND ? packageName.toString() : "";
+    }
+
+    public LexerState getState() {
+        return new LexerState(state, lineHasCode, linesNumber, packageState,
+                packageName == null ? null : packageName.toString());
+    }
+
+    public void setState(LexerState lexerState) {
+        state = lexerState.getState();
+        lineHasCode = lexerState.isLineHasCode();
+        linesNumber = lexerState.getLinesNumber();
+        packageState = lexerState.getPackageState();
+        packageName = lexerState.getPackageName() == null ? null : new StringBuilder(lexerState.getPackageName());
+    }
+
+    private void step(int c) {
+        switch (state) {
+            case CODE:
+                code(c);
+                break;
+            case SLASH:
+                if (c == '/') {
+                    state = LINE_COMMENT;
+                } else if (c == '*') {
+                    state = BLOCK_COMMENT;
+                } else {
+                    lineHasCode = true;
+                    state = CODE;
+                    code(c);
+                }
+                break;
+            case LINE_COMMENT:
+                if (isEndOfLine(c)) {
+                    state = CODE;
+                    endLine();
+                }
+                break;
+            case BLOCK_COMMENT:
+                if (c == '*') {
+                    state = BLOCK_COMMENT_STAR;
+                }
+                break;
+            case BLOCK_COMMENT_STAR:
+                if (c == '/') {
+                    state = CODE;
+                } else if (c != '*') {
+                    state = BLOCK_COMMENT;
+                }
+                break;
+            case STRING:
+            case CHARACTER:
+                if (isEndOfLine(c)) {
+                    state = CODE;
+                    endLine();
+                } else if (c == '\\') {
+                    state = state == STRING ? STRING_ESCAPE : CHARACTER_ESCAPE;
+                } else if (c == (state == STRING ? '"' : '\'')) {
+                    state = CODE;
+                }
+                break;
+            case STRING_ESCAPE:
+            case CHARACTER_ESCAPE:
+                if (isEndOfLine(c)) {
+                    state = CODE;
+                    endLine();
+                } else {
+                    state = state == STRING_ESCAPE ? STRING : CHARACTER;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown lexer state " + state);
+        }
+    }
+
+    private void code(int c) {
+        if (c == '/') {
+            state = SLASH;
+            if (packageState == PACKAGE_KEYWORD.length()) {
+                packageState = PACKAGE_NAME; // a comment may separate the keyword from the name
+                packageName = new StringBuilder();
+            }
+            return;
+        }
+
+        if (packageState < PACKAGE_FOUND) {
+            capturePackage(c);
+        }
+
+        if (isEndOfLine(c)) {
+            endLine();
+        } else if (c > ' ') {
+            lineHasCode = true;
+            if (c == '"') {
+                state = STRING;
+            } else if (c == '\'') {
+                state = CHARACTER;
+            }
+        }
+    }
+
+    private void capturePackage(int c) {
+        boolean isSpace = c <= ' ';
+        if (packageState < PACKAGE_KEYWORD.length()) {
+            if (!isSpace || packageState > 0) {
+                packageState = c == PACKAGE_KEYWORD.charAt(packageState) ? packageState + 1 : PACKAGE_MISSING;
+            }
+        } else if (packageState == PACKAGE_KEYWORD.length()) {
+            packageState = isSpace ? PACKAGE_NAME : PACKAGE_MISSING;
+            packageName = new StringBuilder();
+        } else if (c == ';') {
+            packageState = PACKAGE_FOUND;
+            if (isByteInput) {
+                packageName = new StringBuilder(decodeUtf8(packageName));
+            }
+        } else if (!isSpace) {
+            boolean isNamePart = c == '.' || (isByteInput && c >= 0x80) || Character.isJavaIdentifierPart(c);
+            if (isNamePart && packageName.length() < MAX_PACKAGE_NAME_LENGTH) {
+                packageName.append((char) c);
+            } else {
+                packageState = PACKAGE_MISSING;
+            }
+        }
+
+        if (packageState == PACKAGE_MISSING) {
+            packageName = null;
+        }
+    }
+
+    private static String decodeUtf8(CharSequence bytes) {
+        byte[] utf8 = new byte[bytes.length()];
+        for (int i = 0; i < utf8.length; i++) {
+            utf8[i] = (byte) bytes.charAt(i);
+        }
+
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private void endLine() {
+        if (lineHasCode) {
+            linesNumber++;
+            lineHasCode = false;
+        }
+    }
+
+    private boolean isEndOfLine(int c) {
+        return c == '\n' || c == '\r';
+    }
+}
@@ -0,0 +1,292 @@
+package petrovskyi.counter;
+
+import petrovskyi.util.CharsetDetector;
+import petrovskyi.util.DirectBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Streaming {@link LineCounter} on top of {@link JavaSourceLexer}.
+ * With a {@link LexerCheckpointStore} it remembers the lexer state every interval bytes of each counted file,
+ * so a changed or appended file is only lexed from the last checkpoint whose bytes are still the same.
+ * With a {@link PackageAggregator} the lines of every counted source are also added to its declared package.
+ */
+public class JavaSourceLineCounter implements LineCounter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_MAX_BUFFERS = Runtime.getRuntime().availableProcessors() * 2;
+    // archive and stdin members come one after another on a thread, so each thread keeps one array
+    private static final ThreadLocal<byte[]> STREAM_BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final int checkpointInterval;
+    private final LexerCheckpointStore checkpointStore;
+    private final DirectBufferPool bufferPool;
+    private final PackageAggregator packageAggregator;
+    private final AtomicLong lexedBytes = new AtomicLong();
+    private final LongAdder readBytes = new LongAdder();
+
+    public JavaSourceLineCounter() {
+        this((PackageAggregator) null);
+    }
+
+    public JavaSourceLineCounter(PackageAggregator packageAggregator) {
+        this(new DirectBufferPool(BUFFER_SIZE, DEFAULT_MAX_BUFFERS), packageAggregator);
+    }
+
+    public JavaSourceLineCounter(DirectBufferPool bufferPool, PackageAggregator packageAggregator) {
+        this(0, null, bufferPool, packageAggregator);
+    }
+
+    public JavaSourceLineCounter(int checkpointInterval, LexerCheckpointStore checkpointStore, PackageAggregator packageAggregator) {
+        this(checkpointInterval, checkpointStore, new DirectBufferPool(BUFFER_SIZE, DEFAULT_MAX_BUFFERS), packageAggregator);
+    }
+
+    public JavaSourceLineCounter(int checkpointInterval, LexerCheckpointStore checkpointStore, DirectBufferPool bufferPool,
+                                 PackageAggregator packageAggregator) {
+        if (checkpointStore != null && checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive, got " + checkpointInterval);
+        }
+
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointStore = checkpointStore;
+        this.bufferPool = bufferPool;
+        this.packageAggregator = packageAggregator;
+    }
+
+    @Override
+    public int count(InputStream inputStream) {
+        JavaSourceLexer lexer = new JavaSourceLexer();
+        byte[] bytes = STREAM_BUFFERS.get();
+        try {
+            int read = CharsetDetector.readHead(inputStream, bytes);
+            readBytes.add(read);
+            Charset charset = CharsetDetector.detect(bytes, Math.min(read, CharsetDetector.HEAD_SIZE));
+            if (!CharsetDetector.isByteCompatible(charset)) {
+                InputStream rest = new FilterInputStream(inputStream) {
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int count = super.read(buffer, offset, length);
+                        readBytes.add(Math.max(count, 0));
+                        return count;
+                    }
+                };
+                InputStream source = new SequenceInputStream(new ByteArrayInputStream(bytes, 0, read), rest);
+                return countChars(new InputStreamReader(source, charset));
+            }
+
+            int bomLength = CharsetDetector.bomLength(bytes, read);
+            lexer.lex(ByteBuffer.wrap(bytes, bomLength, read - bomLength));
+            while ((read = inputStream.read(bytes)) != -1) {
+                readBytes.add(read);
+                lexer.lex(ByteBuffer.wrap(bytes, 0, read));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return aggregate(lexer);
+    }
+
+    /**
+     * Counts a document that is already in memory, e.g. an unsaved editor buffer, without copying it.
+     */
+    public int count(CharSequence source) {
+        JavaSourceLexer lexer = new JavaSourceLexer();
+        lexer.lex(source);
+
+        return aggregate(lexer);
+    }
+
+    /**
+     * Counts the remaining bytes of an ASCII compatible encoded document; the buffer position is left as is.
+     */
+    public int count(ByteBuffer source) {
+        JavaSourceLexer lexer = new JavaSourceLexer();
+        lexer.lex(source.duplicate());
+
+        return aggregate(lexer);
+    }
+
+    @Override
+    public int count(Path path) throws IOException {
+        if (checkpointStore == null) {
+            ByteBuffer buffer = bufferPool.acquire();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                JavaSourceLexer lexer = new JavaSourceLexer();
+                readBytes.add(channel.size());
+                readSegment(channel, buffer);
+                buffer.flip();
+
+                Charset charset = CharsetDetector.detect(buffer);
+                if (!CharsetDetector.isByteCompatible(charset)) {
+                    return countChars(path, charset);
+                }
+
+                buffer.position(CharsetDetector.bomLength(buffer));
+                lexer.lex(buffer);
+                buffer.clear();
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    lexer.lex(buffer);
+                    buffer.clear();
+                }
+
+                return aggregate(lexer);
+            } finally {
+                bufferPool.release(buffer);
+            }
+        }
+
+        return countFromCheckpoints(path);
+    }
+
+    int countFromCheckpoints(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+            String key = path.toAbsolutePath().toString();
+            LexerCheckpointStore.FileCheckpoints previous = checkpointStore.get(key);
+            if (previous != null && previous.getSize() == size && previous.getLastModified() == lastModified) {
+                if (packageAggregator != null) {
+                    packageAggregator.add(previous.getPackageName(), previous.getLinesNumber());
+                }
+                return previous.getLinesNumber();
+            }
+
+            readBytes.add(size); // every segment is read for its checksum
+            List<LexerCheckpoint> previousCheckpoints = previous == null
+                    ? Collections.emptyList()
+                    : previous.getCheckpoints();
+            List<LexerCheckpoint> checkpoints = new ArrayList<>();
+            boolean prefixUnchanged = true;
+
+            JavaSourceLexer lexer = new JavaSourceLexer();
+            ByteBuffer buffer = ByteBuffer.allocate(checkpointInterval);
+            CRC32 crc = new CRC32();
+            long offset = 0;
+
+            while (readSegment(channel, buffer)) {
+                buffer.flip();
+                int segmentLength = buffer.remaining();
+                offset += segmentLength;
+
+                int bomLength = 0;
+                if (offset == segmentLength) {
+                    Charset charset = CharsetDetector.detect(buffer);
+                    if (!CharsetDetector.isByteCompatible(charset)) {
+                        return countChars(path, charset); // decoded sources are not checkpointed
+                    }
+                    bomLength = CharsetDetector.bomLength(buffer);
+                }
+
+                // the tail and whatever follows the last checkpoint a file may keep are always lexed
+                if (segmentLength < checkpointInterval || checkpoints.size() == checkpointStore.getMaxCheckpoints()) {
+                    lexedBytes.addAndGet(segmentLength);
+                    buffer.position(bomLength);
+                    lexer.lex(buffer);
+                    buffer.clear();
+                    continue;
+                }
+
+                crc.reset();
+                crc.update(buffer.array(), buffer.arrayOffset(), segmentLength);
+
+                int index = checkpoints.size();
+                if (prefixUnchanged && index < previousCheckpoints.size()
+                        && previousCheckpoints.get(index).getOffset() == offset
+                        && previousCheckpoints.get(index).getSegmentChecksum() == crc.getValue()) {
+                    LexerCheckpoint checkpoint = previousCheckpoints.get(index);
+                    lexer.setState(checkpoint.getLexerState());
+                    checkpoints.add(checkpoint);
+                } else {
+                    prefixUnchanged = false;
+                    lexedBytes.addAndGet(segmentLength);
+                    buffer.position(bomLength);
+                    lexer.lex(buffer);
+                    checkpoints.add(new LexerCheckpoint(offset, crc.getValue(), lexer.getState()));
+                }
+                buffer.clear();
+            }
+
+            int linesNumber = aggregate(lexer);
+            checkpointStore.put(key,
+                    new LexerCheckpointStore.FileCheckpoints(size, lastModified, linesNumber, lexer.getPackageName(), checkpoints));
+
+            return linesNumber;
+        }
+    }
+
+    private int countChars(Path path, Charset charset) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), charset)) {
+            return countChars(reader);
+        }
+    }
+
+    private int countChars(Reader reader) throws IOException {
+        JavaSourceLexer lexer = new JavaSourceLexer();
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        boolean first = true;
+        while (reader.read(chars) != -1) {
+            chars.flip();
+            if (first && chars.hasRemaining() && chars.get(0) == '\uFEFF') {
+                chars.position(1); // byte order mark
+            }
+            first = false;
+            lexer.lex(chars);
+            chars.clear();
+        }
+
+        return aggregate(lexer);
+    }
+
+    private int aggregate(JavaSourceLexer lexer) {
+        if (packageAggregator != null) {
+            packageAggregator.add(lexer.getPackageName(), lexer.getLinesNumber());
+        }
+
+        return lexer.getLinesNumber();
+    }
+
+    public DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public long getReadBytes() {
+        return readBytes.sum();
+    }
+
+    long getLexedBytes() {
+        return lexedBytes.get();
+    }
+
+    private boolean readSegment(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                break;
+            }
+        }
+
+        return buffer.position() > 0;
+    }
+}
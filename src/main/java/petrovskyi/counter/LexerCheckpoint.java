@@ -0,0 +1,10 @@
+package petrovskyi.counter;
+
+import lombok.Data;
+
+@Data
+public class LexerCheckpoint {
+    private final long offset;
+    private final long segmentChecksum; // CRC32 of the bytes since the previous checkpoint
+    private final LexerState lexerState;
+}
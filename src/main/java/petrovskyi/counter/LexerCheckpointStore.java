@@ -0,0 +1,167 @@
+package petrovskyi.counter;
+
+import lombok.Data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lexer checkpoints of the counted files keyed by path, kept between runs in a file next to the cache or snapshot.
+ * Only the most recently counted {@code maxFiles} files are kept, each with at most {@code maxCheckpoints}
+ * checkpoints, so the store stays bounded whatever the tree size is. The file is replaced as a whole on close;
+ * when several processes share it the last one to close wins, which only costs the others a full lex next time.
+ * <pre>
+ * store      : magic, version, files (int each), files
+ * file       : path (UTF), size, last modified (long each), lines (int), package (UTF), checkpoints (int), checkpoints
+ * checkpoint : offset, segment checksum (long each), state (int), line has code (boolean), lines, package state (int each),
+ *              has package name (boolean), package name (UTF, only when present)
+ * </pre>
+ */
+public class LexerCheckpointStore implements Closeable {
+    public static final int DEFAULT_MAX_FILES = 4096;
+    public static final int DEFAULT_MAX_CHECKPOINTS = 1024;
+    private static final int MAGIC = 0x43434C43; // "CCLC"
+    private static final int VERSION = 1;
+
+    private final Path storePath;
+    private final int maxCheckpoints;
+    private final Map<String, FileCheckpoints> pathToCheckpoints;
+
+    public LexerCheckpointStore(Path storePath) {
+        this(storePath, DEFAULT_MAX_FILES, DEFAULT_MAX_CHECKPOINTS);
+    }
+
+    public LexerCheckpointStore(Path storePath, int maxFiles, int maxCheckpoints) {
+        if (maxFiles <= 0 || maxCheckpoints <= 0) {
+            throw new IllegalArgumentException("Checkpoint store needs room for at least one file and checkpoint");
+        }
+
+        this.storePath = storePath;
+        this.maxCheckpoints = maxCheckpoints;
+        this.pathToCheckpoints = Collections.synchronizedMap(new LinkedHashMap<String, FileCheckpoints>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileCheckpoints> eldest) {
+                return size() > maxFiles;
+            }
+        });
+        load();
+    }
+
+    public FileCheckpoints get(String path) {
+        return pathToCheckpoints.get(path);
+    }
+
+    public void put(String path, FileCheckpoints checkpoints) {
+        pathToCheckpoints.put(path, checkpoints);
+    }
+
+    public int getMaxCheckpoints() {
+        return maxCheckpoints;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Path temporaryPath = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            synchronized (pathToCheckpoints) {
+                output.writeInt(pathToCheckpoints.size());
+                for (Map.Entry<String, FileCheckpoints> pathAndCheckpoints : pathToCheckpoints.entrySet()) {
+                    write(output, pathAndCheckpoints.getKey(), pathAndCheckpoints.getValue());
+                }
+            }
+        }
+
+        Files.move(temporaryPath, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load() {
+        if (!Files.exists(storePath)) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(storePath)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return; // unknown format, start from nothing
+            }
+
+            int filesNumber = input.readInt();
+            for (int i = 0; i < filesNumber; i++) {
+                String path = input.readUTF();
+                pathToCheckpoints.put(path, read(input));
+            }
+        } catch (IOException e) {
+            pathToCheckpoints.clear(); // damaged, e.g. cut by a full disk; the files are lexed from the start
+        }
+    }
+
+    private void write(DataOutputStream output, String path, FileCheckpoints fileCheckpoints) throws IOException {
+        output.writeUTF(path);
+        output.writeLong(fileCheckpoints.getSize());
+        output.writeLong(fileCheckpoints.getLastModified());
+        output.writeInt(fileCheckpoints.getLinesNumber());
+        output.writeUTF(fileCheckpoints.getPackageName());
+        output.writeInt(fileCheckpoints.getCheckpoints().size());
+        for (LexerCheckpoint checkpoint : fileCheckpoints.getCheckpoints()) {
+            LexerState lexerState = checkpoint.getLexerState();
+            output.writeLong(checkpoint.getOffset());
+            output.writeLong(checkpoint.getSegmentChecksum());
+            output.writeInt(lexerState.getState());
+            output.writeBoolean(lexerState.isLineHasCode());
+            output.writeInt(lexerState.getLinesNumber());
+            output.writeInt(lexerState.getPackageState());
+            output.writeBoolean(lexerState.getPackageName() != null);
+            if (lexerState.getPackageName() != null) {
+                output.writeUTF(lexerState.getPackageName());
+            }
+        }
+    }
+
+    private FileCheckpoints read(DataInputStream input) throws IOException {
+        long size = input.readLong();
+        long lastModified = input.readLong();
+        int linesNumber = input.readInt();
+        String packageName = input.readUTF();
+        int checkpointsNumber = input.readInt();
+        if (checkpointsNumber < 0 || checkpointsNumber > maxCheckpoints) {
+            throw new IOException("Unexpected number of checkpoints " + checkpointsNumber);
+        }
+
+        List<LexerCheckpoint> checkpoints = new ArrayList<>(checkpointsNumber);
+        for (int i = 0; i < checkpointsNumber; i++) {
+            long offset = input.readLong();
+            long segmentChecksum = input.readLong();
+            int state = input.readInt();
+            boolean lineHasCode = input.readBoolean();
+            int lines = input.readInt();
+            int packageState = input.readInt();
+            String statePackageName = input.readBoolean() ? input.readUTF() : null;
+            checkpoints.add(new LexerCheckpoint(offset, segmentChecksum,
+                    new LexerState(state, lineHasCode, lines, packageState, statePackageName)));
+        }
+
+        return new FileCheckpoints(size, lastModified, linesNumber, packageName, checkpoints);
+    }
+
+    @Data
+    public static class FileCheckpoints {
+        private final long size;
+        private final long lastModified;
+        private final int linesNumber;
+        private final String packageName;
+        private final List<LexerCheckpoint> checkpoints;
+    }
+}
@@ -0,0 +1,12 @@
+package petrovskyi.counter;
+
+import lombok.Data;
+
+@Data
+public class LexerState {
+    private final int state;
+    private final boolean lineHasCode;
+    private final int linesNumber;
+    private final int packageState;
+    private final String packageName;
+}
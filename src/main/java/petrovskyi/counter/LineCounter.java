@@ -1,7 +1,23 @@
 package petrovskyi.counter;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public interface LineCounter {
     int count(InputStream inputStream);
+
+    default int count(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return count(inputStream);
+        }
+    }
+
+    /**
+     * @return bytes of the sources read so far, 0 for counters that do not track them
+     */
+    default long getReadBytes() {
+        return 0;
+    }
 }
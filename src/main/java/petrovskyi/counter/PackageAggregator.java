@@ -0,0 +1,46 @@
+package petrovskyi.counter;
+
+import petrovskyi.entity.PackageStatistic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums the counted lines per declared Java package, whatever source root or directory a file is in.
+ * Counters of all threads add to the same map, a package entry is created once and then only incremented.
+ */
+public class PackageAggregator {
+    private final Map<String, Totals> packageToTotals = new ConcurrentHashMap<>();
+
+    public void add(String packageName, int linesNumber) {
+        Totals totals = packageToTotals.get(packageName);
+        if (totals == null) {
+            totals = packageToTotals.computeIfAbsent(packageName, key -> new Totals());
+        }
+
+        totals.filesNumber.increment();
+        totals.linesNumber.add(linesNumber);
+    }
+
+    /**
+     * @return the packages ordered by name, the default package first
+     */
+    public List<PackageStatistic> getStatistics() {
+        List<PackageStatistic> statistics = new ArrayList<>();
+        for (Map.Entry<String, Totals> entry : new TreeMap<>(packageToTotals).entrySet()) {
+            statistics.add(new PackageStatistic(entry.getKey(),
+                    entry.getValue().filesNumber.sum(), entry.getValue().linesNumber.sum()));
+        }
+
+        return statistics;
+    }
+
+    private static class Totals {
+        private final LongAdder filesNumber = new LongAdder();
+        private final LongAdder linesNumber = new LongAdder();
+    }
+}
@@ -0,0 +1,22 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ApplicationArguments {
+    private List<String> paths = new ArrayList<>();
+    private Map<String, String> options = new HashMap<>();
+
+    public boolean hasOption(String name) {
+        return options.containsKey(name);
+    }
+
+    public String getOption(String name) {
+        return options.get(name);
+    }
+}
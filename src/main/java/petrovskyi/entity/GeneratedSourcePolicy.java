@@ -0,0 +1,19 @@
+package petrovskyi.entity;
+
+/**
+ * What to do with sources recognized as generated.
+ */
+public enum GeneratedSourcePolicy {
+    /**
+     * Count them like any other source, the files are not even inspected.
+     */
+    COUNT,
+    /**
+     * Count them, but mark them as generated in the report.
+     */
+    TAG,
+    /**
+     * Leave them out of the report; only the head of such a file is read.
+     */
+    EXCLUDE
+}
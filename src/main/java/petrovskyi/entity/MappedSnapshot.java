@@ -0,0 +1,168 @@
+package petrovskyi.entity;
+
+import petrovskyi.util.SnapshotPathComparator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read only view over a snapshot in the binary format written by {@code SnapshotService}.
+ * Nothing is deserialized up front: totals come from the header and entries are read from the buffer on access.
+ * <pre>
+ * header  : magic, version, entries, files, directories, root length (int each), total lines, strings offset (long each)
+ * entries : fixed size records sorted by {@link SnapshotPathComparator}
+ *           path offset, path length, lines (int each), depth (short), flags (byte), padding (byte),
+ *           size, last modified, digest (long each)
+ * strings : UTF-8 root followed by the UTF-8 relative paths
+ * </pre>
+ */
+public class MappedSnapshot {
+    public static final int MAGIC = 0x43434C53; // "CCLS"
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 40;
+    public static final int RECORD_SIZE = 40;
+    public static final byte DIRECTORY_FLAG = 1;
+
+    private final ByteBuffer buffer;
+    private final int entriesNumber;
+    private final int filesNumber;
+    private final int directoriesNumber;
+    private final long totalLinesNumber;
+    private final int stringsOffset;
+    private final String root;
+
+    /**
+     * Checks the header against the buffer once, so a truncated or damaged file fails here with a clear message
+     * instead of on some later entry access. Records are trusted past that point.
+     */
+    public MappedSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int capacity = this.buffer.capacity();
+        if (capacity < HEADER_SIZE) {
+            throw new IllegalArgumentException("Corrupt snapshot: " + capacity + " bytes cannot hold the header");
+        }
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot format");
+        }
+
+        entriesNumber = this.buffer.getInt(8);
+        filesNumber = this.buffer.getInt(12);
+        directoriesNumber = this.buffer.getInt(16);
+        int rootLength = this.buffer.getInt(20);
+        totalLinesNumber = this.buffer.getLong(24);
+        long strings = this.buffer.getLong(32);
+
+        if (entriesNumber < 0 || filesNumber < 0 || directoriesNumber < 0 || rootLength < 0) {
+            throw new IllegalArgumentException("Corrupt snapshot: negative count in the header");
+        }
+        if (strings < HEADER_SIZE + (long) entriesNumber * RECORD_SIZE || strings + rootLength > capacity) {
+            throw new IllegalArgumentException("Corrupt snapshot: " + entriesNumber + " entries and a root of "
+                    + rootLength + " bytes at " + strings + " do not fit in " + capacity + " bytes");
+        }
+
+        stringsOffset = (int) strings;
+        root = decode(stringsOffset, rootLength);
+    }
+
+    public static MappedSnapshot empty() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(32, HEADER_SIZE);
+
+        return new MappedSnapshot(buffer);
+    }
+
+    public String getRoot() {
+        return root;
+    }
+
+    public int getEntriesNumber() {
+        return entriesNumber;
+    }
+
+    public int getFilesNumber() {
+        return filesNumber;
+    }
+
+    public int getDirectoriesNumber() {
+        return directoriesNumber;
+    }
+
+    public long getTotalLinesNumber() {
+        return totalLinesNumber;
+    }
+
+    public int indexOf(String path) {
+        byte[] key = path.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entriesNumber - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = recordOffset(middle);
+            int comparison = SnapshotPathComparator.compare(key, buffer,
+                    stringsOffset + buffer.getInt(record), buffer.getInt(record + 4));
+            if (comparison > 0) {
+                low = middle + 1;
+            } else if (comparison < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    public int comparePath(int index, MappedSnapshot other, int otherIndex) {
+        int record = recordOffset(index);
+        int otherRecord = other.recordOffset(otherIndex);
+
+        return SnapshotPathComparator.compare(
+                buffer, stringsOffset + buffer.getInt(record), buffer.getInt(record + 4),
+                other.buffer, other.stringsOffset + other.buffer.getInt(otherRecord), other.buffer.getInt(otherRecord + 4));
+    }
+
+    public String getPath(int index) {
+        int record = recordOffset(index);
+        return decode(stringsOffset + buffer.getInt(record), buffer.getInt(record + 4));
+    }
+
+    public int getLinesNumber(int index) {
+        return buffer.getInt(recordOffset(index) + 8);
+    }
+
+    public int getDepth(int index) {
+        return buffer.getShort(recordOffset(index) + 12);
+    }
+
+    public boolean isDirectory(int index) {
+        return (buffer.get(recordOffset(index) + 14) & DIRECTORY_FLAG) != 0;
+    }
+
+    public long getSize(int index) {
+        return buffer.getLong(recordOffset(index) + 16);
+    }
+
+    public long getLastModified(int index) {
+        return buffer.getLong(recordOffset(index) + 24);
+    }
+
+    public long getDigest(int index) {
+        return buffer.getLong(recordOffset(index) + 32);
+    }
+
+    private int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
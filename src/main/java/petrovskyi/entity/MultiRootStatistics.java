@@ -0,0 +1,14 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class MultiRootStatistics {
+    private List<SourceFileReportStatistic> combinedStatistics;
+    private Map<Path, List<SourceFileReportStatistic>> rootToStatistics = new LinkedHashMap<>();
+}
@@ -0,0 +1,19 @@
+package petrovskyi.entity;
+
+/**
+ * What to do with sources larger than the configured maximum size.
+ */
+public enum OversizedSourcePolicy {
+    /**
+     * Leave them out of the report.
+     */
+    SKIP,
+    /**
+     * Count them anyway; the counters read a file in fixed size chunks and never hold it whole.
+     */
+    STREAM,
+    /**
+     * Stop the run with an error.
+     */
+    FAIL
+}
@@ -0,0 +1,10 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+@Data
+public class PackageStatistic {
+    private final String packageName;
+    private final long filesNumber;
+    private final long linesNumber;
+}
@@ -0,0 +1,11 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+@Data
+public class RunMetrics {
+    private final long durationMillis;
+    private final long readBytes;
+    private final long cacheHits;
+    private final long cacheMisses;
+}
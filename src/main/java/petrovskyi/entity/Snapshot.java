@@ -0,0 +1,15 @@
+package petrovskyi.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import petrovskyi.util.SnapshotPathComparator;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+@Setter
+public class Snapshot {
+    private String root;
+    private Map<String, SnapshotEntry> pathToEntry = new TreeMap<>(SnapshotPathComparator.INSTANCE); // relative to root, '/' separated
+}
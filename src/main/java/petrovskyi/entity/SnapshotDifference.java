@@ -0,0 +1,21 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+@Data
+public class SnapshotDifference {
+    private Type type;
+    private String path;
+    private boolean isDirectory;
+    private int depth;
+    private int previousLinesNumber;
+    private int currentLinesNumber;
+
+    public int getDelta() {
+        return currentLinesNumber - previousLinesNumber;
+    }
+
+    public enum Type {
+        ADDED, REMOVED, CHANGED
+    }
+}
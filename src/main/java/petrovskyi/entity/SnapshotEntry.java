@@ -0,0 +1,13 @@
+package petrovskyi.entity;
+
+import lombok.Data;
+
+@Data
+public class SnapshotEntry {
+    private String path;
+    private boolean isDirectory;
+    private int linesNumber;
+    private long size;
+    private long lastModified;
+    private long digest; // directories only: digest of the children (name, size, mtime)
+}
@@ -10,4 +10,15 @@ public class SourceFileReportStatistic {
     private int linesNumber;
     private Path path;
     private int depth;
+    private boolean isGenerated;
+
+    public static SourceFileReportStatistic of(Path path, int depth, boolean isDirectory, int linesNumber) {
+        SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+        statistic.setPath(path);
+        statistic.setDepth(depth);
+        statistic.setDirectory(isDirectory);
+        statistic.setLinesNumber(linesNumber);
+
+        return statistic;
+    }
 }
@@ -0,0 +1,155 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a report written by {@link BinaryReporter}. Column offsets come from the header, so every read
+ * decodes only the column it asks for and never touches the bytes of the others.
+ */
+public class BinaryReportReader {
+    public static final int MAGIC = 0x43434C52; // "CCLR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 28;
+    public static final byte DIRECTORY_FLAG = 1;
+    public static final byte GENERATED_FLAG = 2;
+
+    private static final int PATHS_COLUMN = 0;
+    private static final int DEPTHS_COLUMN = 1;
+    private static final int FLAGS_COLUMN = 2;
+    private static final int LINES_COLUMN = 3;
+
+    private final ByteBuffer buffer;
+    private final int rowsNumber;
+    private final int[] columnOffsets = new int[4];
+    private final int[] columnLengths = new int[4];
+
+    public BinaryReportReader(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (this.buffer.remaining() < HEADER_SIZE
+                || this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary report format");
+        }
+
+        rowsNumber = this.buffer.getInt(8);
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < columnOffsets.length; i++) {
+            columnOffsets[i] = offset;
+            columnLengths[i] = this.buffer.getInt(12 + 4 * i);
+            offset += columnLengths[i];
+        }
+        if (offset > this.buffer.limit()) {
+            throw new IllegalArgumentException("Binary report is truncated");
+        }
+    }
+
+    public static BinaryReportReader open(Path reportPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(reportPath, StandardOpenOption.READ)) {
+            return new BinaryReportReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getRowsNumber() {
+        return rowsNumber;
+    }
+
+    public List<String> readPaths() {
+        ByteBuffer column = column(PATHS_COLUMN);
+        List<String> paths = new ArrayList<>(rowsNumber);
+        byte[] path = new byte[256];
+        int pathLength = 0;
+        for (int i = 0; i < rowsNumber; i++) {
+            int prefixLength = readVarint(column);
+            int suffixLength = readVarint(column);
+            pathLength = prefixLength + suffixLength;
+            if (pathLength > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, pathLength));
+            }
+            column.get(path, prefixLength, suffixLength);
+            paths.add(new String(path, 0, pathLength, StandardCharsets.UTF_8));
+        }
+
+        return paths;
+    }
+
+    public int[] readDepths() {
+        ByteBuffer column = column(DEPTHS_COLUMN);
+        int[] depths = new int[rowsNumber];
+        for (int i = 0; i < rowsNumber; i++) {
+            depths[i] = readVarint(column);
+        }
+
+        return depths;
+    }
+
+    public byte[] readFlags() {
+        byte[] flags = new byte[rowsNumber];
+        column(FLAGS_COLUMN).get(flags);
+
+        return flags;
+    }
+
+    public int[] readLinesNumbers() {
+        ByteBuffer column = column(LINES_COLUMN);
+        int[] linesNumbers = new int[rowsNumber];
+        int linesNumber = 0;
+        for (int i = 0; i < rowsNumber; i++) {
+            int zigzag = readVarint(column);
+            linesNumber += zigzag >>> 1 ^ -(zigzag & 1);
+            linesNumbers[i] = linesNumber;
+        }
+
+        return linesNumbers;
+    }
+
+    public List<SourceFileReportStatistic> readStatistics() {
+        List<String> paths = readPaths();
+        int[] depths = readDepths();
+        byte[] flags = readFlags();
+        int[] linesNumbers = readLinesNumbers();
+
+        List<SourceFileReportStatistic> statistics = new ArrayList<>(rowsNumber);
+        for (int i = 0; i < rowsNumber; i++) {
+            SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+            statistic.setPath(Paths.get(paths.get(i)));
+            statistic.setDepth(depths[i]);
+            statistic.setDirectory((flags[i] & DIRECTORY_FLAG) != 0);
+            statistic.setGenerated((flags[i] & GENERATED_FLAG) != 0);
+            statistic.setLinesNumber(linesNumbers[i]);
+            statistics.add(statistic);
+        }
+
+        return statistics;
+    }
+
+    private ByteBuffer column(int column) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(columnOffsets[column] + columnLengths[column]).position(columnOffsets[column]);
+
+        return slice;
+    }
+
+    private static int readVarint(ByteBuffer column) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = column.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return value;
+    }
+}
@@ -0,0 +1,141 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the report in the compact columnar format read by {@link BinaryReportReader}. Every column is
+ * encoded as its row arrives, so only the encoded bytes are held until the report is finished.
+ * <pre>
+ * header  : magic, version, rows, then the byte length of every column (int each)
+ * paths   : front coded UTF-8, per row the length shared with the previous path and the suffix (varints)
+ *           followed by the suffix bytes
+ * depths  : varint per row
+ * flags   : byte per row, {@link BinaryReportReader#DIRECTORY_FLAG} and {@link BinaryReportReader#GENERATED_FLAG}
+ * lines   : zigzag varint per row, the difference to the previous row
+ * </pre>
+ */
+public class BinaryReporter implements Reporter, StreamingReporter {
+    private final WritableByteChannel channel;
+    private final Column paths = new Column();
+    private final Column depths = new Column();
+    private final Column flags = new Column();
+    private final Column linesNumbers = new Column();
+    private byte[] previousPath = new byte[0];
+    private int previousLinesNumber;
+    private int rowsNumber;
+
+    public BinaryReporter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        for (SourceFileReportStatistic statistic : statistics) {
+            addRow(statistic);
+        }
+        finish();
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        addRow(statistic);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        addRow(statistic);
+    }
+
+    @Override
+    public void finish() {
+        ByteBuffer header = ByteBuffer.allocate(BinaryReportReader.HEADER_SIZE);
+        header.putInt(BinaryReportReader.MAGIC)
+                .putInt(BinaryReportReader.VERSION)
+                .putInt(rowsNumber)
+                .putInt(paths.count)
+                .putInt(depths.count)
+                .putInt(flags.count)
+                .putInt(linesNumbers.count);
+
+        try {
+            ByteChannelWriter writer = new ByteChannelWriter(channel);
+            writer.write(header.array())
+                    .write(paths.bytes, 0, paths.count)
+                    .write(depths.bytes, 0, depths.count)
+                    .write(flags.bytes, 0, flags.count)
+                    .write(linesNumbers.bytes, 0, linesNumbers.count)
+                    .flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addRow(SourceFileReportStatistic statistic) {
+        byte[] path = statistic.getPath().toString().getBytes(StandardCharsets.UTF_8);
+        int prefixLength = 0;
+        int maxPrefixLength = Math.min(path.length, previousPath.length);
+        while (prefixLength < maxPrefixLength && path[prefixLength] == previousPath[prefixLength]) {
+            prefixLength++;
+        }
+        paths.writeVarint(prefixLength);
+        paths.writeVarint(path.length - prefixLength);
+        paths.write(path, prefixLength, path.length - prefixLength);
+        previousPath = path;
+
+        depths.writeVarint(statistic.getDepth());
+
+        flags.write((statistic.isDirectory() ? BinaryReportReader.DIRECTORY_FLAG : 0)
+                | (statistic.isGenerated() ? BinaryReportReader.GENERATED_FLAG : 0));
+
+        int delta = statistic.getLinesNumber() - previousLinesNumber;
+        linesNumbers.writeVarint(delta << 1 ^ delta >> 31);
+        previousLinesNumber = statistic.getLinesNumber();
+
+        rowsNumber++;
+    }
+
+    private static class Column {
+        private byte[] bytes = new byte[1024];
+        private int count;
+
+        private void write(int b) {
+            ensureCapacity(1);
+            bytes[count++] = (byte) b;
+        }
+
+        private void write(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, count, length);
+            count += length;
+        }
+
+        private void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7f) != 0) {
+                bytes[count++] = (byte) (value & 0x7f | 0x80);
+                value >>>= 7;
+            }
+            bytes[count++] = (byte) value;
+        }
+
+        private void ensureCapacity(int length) {
+            if (count + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+            }
+        }
+    }
+}
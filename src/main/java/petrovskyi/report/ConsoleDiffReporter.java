@@ -0,0 +1,143 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SnapshotDifference;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Prints every difference as {@code <indent><name> : <previous> -> <current> (<delta>)}, or only the delta for
+ * added and removed entries, encoded straight into the buffer of a {@link ByteChannelWriter} like
+ * {@link ConsoleReporter} does. {@link #finish()} adds the summary line and flushes.
+ */
+public class ConsoleDiffReporter implements Consumer<SnapshotDifference> {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] SEPARATOR = " : ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARROW = " -> ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ADDED = " (added)".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REMOVED = " (removed)".getBytes(StandardCharsets.US_ASCII);
+
+    private final String rootName;
+    private final ByteChannelWriter writer;
+    private final Charset charset = Charset.defaultCharset();
+    private final boolean isUtf8 = StandardCharsets.UTF_8.equals(charset);
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private byte[][] indents = new byte[0][];
+    private int addedFilesNumber;
+    private int removedFilesNumber;
+    private int changedFilesNumber;
+    private long totalDelta;
+
+    public ConsoleDiffReporter(String rootName) {
+        this(rootName, new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    public ConsoleDiffReporter(String rootName, WritableByteChannel channel) {
+        this.rootName = rootName;
+        this.writer = new ByteChannelWriter(channel, BUFFER_SIZE);
+    }
+
+    @Override
+    public void accept(SnapshotDifference difference) {
+        String path = difference.getPath();
+        String name = path.isEmpty() ? rootName : path.substring(path.lastIndexOf('/') + 1);
+
+        try {
+            writer.write(encodedIndent(difference.getDepth()));
+            writeText(name);
+            writer.write(SEPARATOR);
+
+            switch (difference.getType()) {
+                case ADDED:
+                    writeSigned(difference.getDelta()).write(ADDED);
+                    break;
+                case REMOVED:
+                    writeSigned(difference.getDelta()).write(REMOVED);
+                    break;
+                default:
+                    writer.writeLong(difference.getPreviousLinesNumber())
+                            .write(ARROW)
+                            .writeLong(difference.getCurrentLinesNumber())
+                            .write(' ')
+                            .write('(');
+                    writeSigned(difference.getDelta()).write(')');
+            }
+
+            writer.write(lineSeparator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (path.isEmpty()) {
+            totalDelta = difference.getDelta();
+        }
+        if (!difference.isDirectory()) {
+            countFile(difference.getType());
+        }
+    }
+
+    public void finish() {
+        try {
+            writeText("Files added: ");
+            writer.writeLong(addedFilesNumber);
+            writeText(", removed: ");
+            writer.writeLong(removedFilesNumber);
+            writeText(", changed: ");
+            writer.writeLong(changedFilesNumber);
+            writeText(", total lines delta: ");
+            writeSigned(totalDelta).write(lineSeparator);
+
+            System.out.flush(); // anything printed before must not end up after the report
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void countFile(SnapshotDifference.Type type) {
+        if (type == SnapshotDifference.Type.ADDED) {
+            addedFilesNumber++;
+        } else if (type == SnapshotDifference.Type.REMOVED) {
+            removedFilesNumber++;
+        } else {
+            changedFilesNumber++;
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        if (isUtf8) {
+            writer.writeUtf8(text);
+        } else {
+            writer.write(text.getBytes(charset));
+        }
+    }
+
+    private ByteChannelWriter writeSigned(long delta) throws IOException {
+        if (delta > 0) {
+            writer.write('+');
+        }
+
+        return writer.writeLong(delta);
+    }
+
+    private byte[] encodedIndent(int depth) {
+        if (depth >= indents.length) {
+            int length = indents.length;
+            indents = Arrays.copyOf(indents, Math.max(depth + 1, length * 2));
+            for (int i = length; i < indents.length; i++) {
+                indents[i] = new byte[i];
+                Arrays.fill(indents[i], (byte) ' ');
+            }
+        }
+
+        return indents[depth];
+    }
+}
@@ -1,23 +1,112 @@
 package petrovskyi.report;
 
 import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 
-public class ConsoleReporter implements Reporter {
+/**
+ * Prints every entry as {@code <indent><name> : <lines>}. Lines are encoded straight into a large buffer,
+ * indents come from a cache of encoded prefixes, and the buffer goes to the channel in big chunks
+ * instead of one synchronized {@code println} per entry.
+ * <p>
+ * A collected report keeps its order, folders before their content; streamed entries are printed in
+ * completion order, the entries of a directory before the directory line with their total.
+ */
+public class ConsoleReporter implements Reporter, StreamingReporter {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] SEPARATOR = " : ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GENERATED = " (generated)".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteChannelWriter writer;
+    private final Charset charset = Charset.defaultCharset();
+    private final boolean isUtf8 = StandardCharsets.UTF_8.equals(charset);
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private byte[][] indents = new byte[0][];
+
+    public ConsoleReporter() {
+        this(new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    public ConsoleReporter(WritableByteChannel channel) {
+        writer = new ByteChannelWriter(channel, BUFFER_SIZE);
+    }
+
     @Override
     public void write(List<SourceFileReportStatistic> statistics) {
         for (SourceFileReportStatistic statistic : statistics) {
-            String stringStatistic = indent(statistic.getDepth()) +
-                    statistic.getPath().getFileName().toString() +
-                    " : " +
-                    statistic.getLinesNumber();
+            writeLine(statistic);
+        }
+        finish();
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+    }
 
-            System.out.println(stringStatistic);
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        writeLine(statistic);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        writeLine(statistic);
+    }
+
+    @Override
+    public void finish() {
+        try {
+            System.out.flush(); // anything printed before must not end up after the report
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(SourceFileReportStatistic statistic) {
+        Path fileName = statistic.getPath().getFileName();
+        String name = fileName == null ? statistic.getPath().toString() : fileName.toString();
+        try {
+            writer.write(encodedIndent(statistic.getDepth()));
+            if (isUtf8) {
+                writer.writeUtf8(name);
+            } else {
+                writer.write(name.getBytes(charset));
+            }
+            writer.write(SEPARATOR).writeLong(statistic.getLinesNumber());
+            if (statistic.isGenerated()) {
+                writer.write(GENERATED);
+            }
+            writer.write(lineSeparator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] encodedIndent(int depth) {
+        if (depth >= indents.length) {
+            int length = indents.length;
+            indents = Arrays.copyOf(indents, Math.max(depth + 1, length * 2));
+            for (int i = length; i < indents.length; i++) {
+                indents[i] = new byte[i];
+                Arrays.fill(indents[i], (byte) ' ');
+            }
         }
+
+        return indents[depth];
     }
 
-    private StringBuilder indent(int spaceCount) {
+    static StringBuilder indent(int spaceCount) {
         StringBuilder stringBuilder = new StringBuilder();
         for (int i = 0; i < spaceCount; i++) {
             stringBuilder.append(" ");
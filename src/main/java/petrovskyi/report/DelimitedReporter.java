@@ -0,0 +1,96 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes one delimited text row per file and directory with a header row first, ready for spreadsheets
+ * and bulk loading. Fields are quoted like RFC 4180 describes, for tab separated output as well.
+ */
+public class DelimitedReporter implements Reporter, StreamingReporter {
+    public static final char CSV_DELIMITER = ',';
+    public static final char TSV_DELIMITER = '\t';
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final String[] HEADER = {"path", "depth", "directory", "lines", "generated"};
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteChannelWriter writer;
+    private final char delimiter;
+    private boolean isHeaderWritten;
+
+    public DelimitedReporter(WritableByteChannel channel, char delimiter) {
+        this.writer = new ByteChannelWriter(channel, BUFFER_SIZE);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Rows follow the order of {@code statistics}, folders before their content.
+     */
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        for (SourceFileReportStatistic statistic : statistics) {
+            writeRow(statistic);
+        }
+        finish();
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        writeRow(statistic);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        writeRow(statistic);
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writeHeader(); // an empty report still gets its header
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRow(SourceFileReportStatistic statistic) {
+        try {
+            writeHeader();
+            writer.writeDelimitedField(statistic.getPath().toString(), delimiter).write(delimiter)
+                    .writeLong(statistic.getDepth()).write(delimiter)
+                    .write(statistic.isDirectory() ? TRUE : FALSE).write(delimiter)
+                    .writeLong(statistic.getLinesNumber()).write(delimiter)
+                    .write(statistic.isGenerated() ? TRUE : FALSE).write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (isHeaderWritten) {
+            return;
+        }
+
+        for (int i = 0; i < HEADER.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            writer.writeUtf8(HEADER[i]);
+        }
+        writer.write('\n');
+        isHeaderWritten = true;
+    }
+}
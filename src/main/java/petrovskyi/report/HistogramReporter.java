@@ -0,0 +1,92 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+import petrovskyi.util.LineCountHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the distribution of lines per file for every directory in completion order. Only the histograms
+ * of the directories being walked are kept, a completed one is added to its parent and then reused.
+ * A root that is a single file gets a line of its own.
+ */
+public class HistogramReporter implements Reporter, StreamingReporter {
+    private final ByteChannelWriter writer;
+    private final List<LineCountHistogram> depthToHistogram = new ArrayList<>();
+
+    public HistogramReporter(WritableByteChannel channel) {
+        writer = new ByteChannelWriter(channel);
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+        histogram(depth).reset();
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        if (statistic.getDepth() > 0) {
+            depthToHistogram.get(statistic.getDepth() - 1).record(statistic.getLinesNumber());
+            return;
+        }
+
+        LineCountHistogram histogram = histogram(0);
+        histogram.reset();
+        histogram.record(statistic.getLinesNumber());
+        print(statistic, histogram);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        LineCountHistogram histogram = depthToHistogram.get(statistic.getDepth());
+        if (statistic.getDepth() > 0) {
+            depthToHistogram.get(statistic.getDepth() - 1).add(histogram);
+        }
+
+        print(statistic, histogram);
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LineCountHistogram histogram(int depth) {
+        while (depthToHistogram.size() <= depth) {
+            depthToHistogram.add(new LineCountHistogram());
+        }
+
+        return depthToHistogram.get(depth);
+    }
+
+    private void print(SourceFileReportStatistic statistic, LineCountHistogram histogram) {
+        Path fileName = statistic.getPath().getFileName();
+        try {
+            writer.writeUtf8(ConsoleReporter.indent(statistic.getDepth())
+                    .append(fileName == null ? statistic.getPath() : fileName)
+                    .append(" : files ").append(histogram.getTotalCount())
+                    .append(", p50 ").append(histogram.getValueAtPercentile(50))
+                    .append(", p90 ").append(histogram.getValueAtPercentile(90))
+                    .append(", p99 ").append(histogram.getValueAtPercentile(99))
+                    .append(", max ").append(histogram.getMaxValue())
+                    .append('\n'));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Writes one self-contained HTML page with a zoomable treemap of the directory rollups. The tree is embedded
+ * as nested JSON arrays, {@code [name, lines]} for files and {@code [name, lines, children]} for directories.
+ * Files and directories below the threshold are folded into one entry of their parent as soon as they complete,
+ * so only the entries that are drawn are kept until the page is written.
+ */
+public class HtmlTreemapReporter implements Reporter, StreamingReporter {
+    private static final String TEMPLATE = "treemap.html";
+    private static final String DATA_MARKER = "/*DATA*/";
+
+    private final ByteChannelWriter writer;
+    private final int minLinesNumber;
+    private final Deque<Node> openDirectories = new ArrayDeque<>();
+    private Node root;
+
+    /**
+     * @param minLinesNumber entries with fewer lines are shown only as part of their parent's aggregate
+     */
+    public HtmlTreemapReporter(WritableByteChannel channel, int minLinesNumber) {
+        this.writer = new ByteChannelWriter(channel);
+        this.minLinesNumber = minLinesNumber;
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+        openDirectories.push(new Node(name(path), new ArrayList<>()));
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        Node file = new Node(name(statistic.getPath()), null);
+        file.linesNumber = statistic.getLinesNumber();
+        add(file);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        Node directory = openDirectories.pop();
+        directory.linesNumber = statistic.getLinesNumber();
+        if (directory.aggregatedNumber > 0) {
+            Node aggregate = new Node("(" + directory.aggregatedNumber + " smaller)", null);
+            aggregate.linesNumber = directory.aggregatedLinesNumber;
+            directory.children.add(aggregate);
+        }
+        add(directory);
+    }
+
+    @Override
+    public void finish() {
+        String template = loadTemplate();
+        int dataOffset = template.indexOf(DATA_MARKER);
+        try {
+            writer.writeUtf8(template.subSequence(0, dataOffset));
+            writeNode(root == null ? new Node("", new ArrayList<>()) : root);
+            writer.writeUtf8(template.subSequence(dataOffset + DATA_MARKER.length(), template.length())).flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void add(Node node) {
+        Node parent = openDirectories.peek();
+        if (parent == null) {
+            root = node;
+        } else if (node.linesNumber < minLinesNumber) {
+            parent.aggregatedNumber++;
+            parent.aggregatedLinesNumber += node.linesNumber;
+        } else {
+            parent.children.add(node);
+        }
+    }
+
+    private void writeNode(Node node) throws IOException {
+        writer.write('[').writeJsonString(node.name, true).write(',').writeLong(node.linesNumber);
+        if (node.children != null) {
+            writer.write(',').write('[');
+            for (int i = 0; i < node.children.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeNode(node.children.get(i));
+            }
+            writer.write(']');
+        }
+        writer.write(']');
+    }
+
+    private String name(Path path) {
+        Path fileName = path.getFileName();
+        return fileName == null ? path.toString() : fileName.toString();
+    }
+
+    private String loadTemplate() {
+        try (InputStream inputStream = HtmlTreemapReporter.class.getResourceAsStream(TEMPLATE)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Treemap template " + TEMPLATE + " is missing");
+            }
+
+            ByteArrayOutputStream template = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                template.write(buffer, 0, read);
+            }
+
+            String html = new String(template.toByteArray(), StandardCharsets.UTF_8);
+            if (!html.contains(DATA_MARKER)) {
+                throw new IllegalStateException("Treemap template " + TEMPLATE + " has no data marker");
+            }
+            return html;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private final List<Node> children; // null for files
+        private long linesNumber;
+        private int aggregatedNumber;
+        private long aggregatedLinesNumber;
+
+        private Node(String name, List<Node> children) {
+            this.name = name;
+            this.children = children;
+        }
+    }
+}
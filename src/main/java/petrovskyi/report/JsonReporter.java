@@ -0,0 +1,114 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the tree as one nested JSON document. A directory object is opened when the directory starts
+ * and its {@code lines} follow the {@code children} array, so the document is written while counting.
+ */
+public class JsonReporter implements Reporter, StreamingReporter {
+    private static final byte[] NAME = ascii("{\"name\":");
+    private static final byte[] PATH = ascii(",\"path\":");
+    private static final byte[] DIRECTORY_CHILDREN = ascii(",\"directory\":true,\"children\":[");
+    private static final byte[] FILE_LINES = ascii(",\"directory\":false,\"lines\":");
+    private static final byte[] GENERATED = ascii(",\"generated\":true");
+    private static final byte[] DIRECTORY_LINES = ascii("],\"lines\":");
+
+    private final ByteChannelWriter writer;
+    private boolean[] depthHasEntries = new boolean[32];
+
+    public JsonReporter(WritableByteChannel channel) {
+        writer = new ByteChannelWriter(channel);
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+        try {
+            startEntry(path, depth);
+            writer.write(DIRECTORY_CHILDREN);
+            hasEntries(depth, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        try {
+            startEntry(statistic.getPath(), statistic.getDepth());
+            writer.write(FILE_LINES).writeLong(statistic.getLinesNumber());
+            if (statistic.isGenerated()) {
+                writer.write(GENERATED);
+            }
+            endEntry(statistic.getDepth());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        try {
+            writer.write(DIRECTORY_LINES).writeLong(statistic.getLinesNumber());
+            endEntry(statistic.getDepth());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startEntry(Path path, int depth) throws IOException {
+        if (depth > 0) {
+            if (depthHasEntries[depth - 1]) {
+                writer.write(',');
+            }
+            hasEntries(depth - 1, true);
+        }
+
+        Path fileName = path.getFileName();
+        writer.write(NAME).writeJsonString(fileName == null ? path.toString() : fileName.toString());
+        if (depth == 0) {
+            writer.write(PATH).writeJsonString(path.toString());
+        }
+    }
+
+    private void endEntry(int depth) throws IOException {
+        writer.write('}');
+        if (depth == 0) {
+            writer.write('\n');
+        }
+    }
+
+    private void hasEntries(int depth, boolean hasEntries) {
+        if (depth >= depthHasEntries.length) {
+            depthHasEntries = Arrays.copyOf(depthHasEntries, Math.max(depth + 1, depthHasEntries.length * 2));
+        }
+        depthHasEntries[depth] = hasEntries;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,74 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes one JSON object per line for every file and directory, in completion order.
+ */
+public class NdjsonReporter implements Reporter, StreamingReporter {
+    private static final byte[] PATH = ascii("{\"path\":");
+    private static final byte[] DEPTH = ascii(",\"depth\":");
+    private static final byte[] DIRECTORY_LINES = ascii(",\"directory\":true,\"lines\":");
+    private static final byte[] FILE_LINES = ascii(",\"directory\":false,\"lines\":");
+    private static final byte[] GENERATED = ascii(",\"generated\":true");
+
+    private final ByteChannelWriter writer;
+
+    public NdjsonReporter(WritableByteChannel channel) {
+        writer = new ByteChannelWriter(channel);
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        writeRecord(statistic);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        writeRecord(statistic);
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRecord(SourceFileReportStatistic statistic) {
+        try {
+            writer.write(PATH).writeJsonString(statistic.getPath().toString())
+                    .write(DEPTH).writeLong(statistic.getDepth())
+                    .write(statistic.isDirectory() ? DIRECTORY_LINES : FILE_LINES).writeLong(statistic.getLinesNumber());
+            if (statistic.isGenerated()) {
+                writer.write(GENERATED);
+            }
+            writer.write('}').write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
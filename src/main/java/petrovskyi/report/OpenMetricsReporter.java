@@ -0,0 +1,195 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.RunMetrics;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Writes OpenMetrics text for the textfile collector of the node exporter: lines and files gauges for
+ * every directory down to the module depth and the metrics of the run. A file is written next to the
+ * target and renamed over it, so a scrape never reads a partial file.
+ */
+public class OpenMetricsReporter implements Reporter, StreamingReporter {
+    private final WritableByteChannel channel;
+    private final Path outputPath;
+    private final int maxDepth;
+    private final Supplier<RunMetrics> runMetrics;
+    private final List<Module> modules = new ArrayList<>();
+    private long[] depthToFilesNumber = new long[16];
+    private long filesNumber;
+    private Path rootPath;
+
+    public OpenMetricsReporter(WritableByteChannel channel, int maxDepth, Supplier<RunMetrics> runMetrics) {
+        this(channel, null, maxDepth, runMetrics);
+    }
+
+    public OpenMetricsReporter(Path outputPath, int maxDepth, Supplier<RunMetrics> runMetrics) {
+        this(null, outputPath, maxDepth, runMetrics);
+    }
+
+    private OpenMetricsReporter(WritableByteChannel channel, Path outputPath, int maxDepth,
+                                Supplier<RunMetrics> runMetrics) {
+        this.channel = channel;
+        this.outputPath = outputPath;
+        this.maxDepth = maxDepth;
+        this.runMetrics = runMetrics;
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+        if (depth == 0) {
+            rootPath = path;
+        }
+        if (depth >= depthToFilesNumber.length) {
+            depthToFilesNumber = Arrays.copyOf(depthToFilesNumber, Math.max(depth + 1, depthToFilesNumber.length * 2));
+        }
+        depthToFilesNumber[depth] = 0;
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        filesNumber++;
+        if (statistic.getDepth() > 0) {
+            depthToFilesNumber[statistic.getDepth() - 1]++;
+        }
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        int depth = statistic.getDepth();
+        if (depth > 0) {
+            depthToFilesNumber[depth - 1] += depthToFilesNumber[depth];
+        }
+        if (depth <= maxDepth) {
+            modules.add(new Module(modulePath(statistic.getPath()), depth,
+                    statistic.getLinesNumber(), depthToFilesNumber[depth]));
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            if (outputPath == null) {
+                writeMetrics(channel);
+                return;
+            }
+
+            Path temporaryPath = outputPath.resolveSibling(outputPath.getFileName() + ".tmp");
+            try (FileChannel fileChannel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeMetrics(fileChannel);
+            }
+            Files.move(temporaryPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeMetrics(WritableByteChannel target) throws IOException {
+        ByteChannelWriter writer = new ByteChannelWriter(target);
+        String root = rootPath == null ? "" : rootPath.toString();
+
+        family(writer, "loc_lines", "Lines of code of a module.");
+        for (Module module : modules) {
+            sample(writer, "loc_lines", root, module).writeLong(module.linesNumber).write('\n');
+        }
+        family(writer, "loc_files", "Source files of a module.");
+        for (Module module : modules) {
+            sample(writer, "loc_files", root, module).writeLong(module.filesNumber).write('\n');
+        }
+
+        RunMetrics metrics = runMetrics.get();
+        family(writer, "loc_run_duration_seconds", "Wall time of the run.");
+        writer.writeUtf8("loc_run_duration_seconds ").writeUtf8(seconds(metrics.getDurationMillis())).write('\n');
+        family(writer, "loc_run_files", "Source files counted by the run.");
+        writer.writeUtf8("loc_run_files ").writeLong(filesNumber).write('\n');
+        family(writer, "loc_run_read_bytes", "Bytes of sources read by the run.");
+        writer.writeUtf8("loc_run_read_bytes ").writeLong(metrics.getReadBytes()).write('\n');
+
+        long lookups = metrics.getCacheHits() + metrics.getCacheMisses();
+        if (lookups > 0) {
+            family(writer, "loc_run_cache_hit_ratio", "Share of sources answered by the line count cache.");
+            writer.writeUtf8("loc_run_cache_hit_ratio ")
+                    .writeUtf8(Double.toString((double) metrics.getCacheHits() / lookups)).write('\n');
+        }
+
+        family(writer, "loc_run_timestamp_seconds", "Time the run finished.");
+        writer.writeUtf8("loc_run_timestamp_seconds ").writeUtf8(seconds(System.currentTimeMillis())).write('\n');
+        writer.writeUtf8("# EOF\n").flush();
+    }
+
+    private void family(ByteChannelWriter writer, String name, String help) throws IOException {
+        writer.writeUtf8("# HELP ").writeUtf8(name).write(' ').writeUtf8(help).write('\n')
+                .writeUtf8("# TYPE ").writeUtf8(name).writeUtf8(" gauge\n");
+    }
+
+    private ByteChannelWriter sample(ByteChannelWriter writer, String name, String root, Module module) throws IOException {
+        writer.writeUtf8(name).writeUtf8("{root=");
+        label(writer, root);
+        writer.writeUtf8(",module=");
+        label(writer, module.path);
+        return writer.writeUtf8(",depth=\"").writeLong(module.depth).writeUtf8("\"} ");
+    }
+
+    private void label(ByteChannelWriter writer, String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"' || c == '\n') {
+                writer.writeUtf8(value.subSequence(start, i)).write('\\').write(c == '\n' ? 'n' : c);
+                start = i + 1;
+            }
+        }
+        writer.writeUtf8(value.subSequence(start, value.length())).write('"');
+    }
+
+    private String modulePath(Path path) {
+        if (rootPath == null || !path.startsWith(rootPath)) {
+            return path.toString();
+        }
+
+        String modulePath = rootPath.relativize(path).toString();
+        if (modulePath.isEmpty()) {
+            return ".";
+        }
+        return File.separatorChar == '/' ? modulePath : modulePath.replace(File.separatorChar, '/');
+    }
+
+    private static String seconds(long millis) {
+        return String.format("%d.%03d", millis / 1000, millis % 1000);
+    }
+
+    private static class Module {
+        private final String path;
+        private final int depth;
+        private final long linesNumber;
+        private final long filesNumber;
+
+        private Module(String path, int depth, long linesNumber, long filesNumber) {
+            this.path = path;
+            this.depth = depth;
+            this.linesNumber = linesNumber;
+            this.filesNumber = filesNumber;
+        }
+    }
+}
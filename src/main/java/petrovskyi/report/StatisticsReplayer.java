@@ -0,0 +1,35 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Feeds statistics that are already collected, folders first as the services return them,
+ * to a {@link StreamingReporter}, so every output format works for every input mode.
+ */
+public class StatisticsReplayer {
+
+    public static void replay(List<SourceFileReportStatistic> statistics, StreamingReporter reporter) {
+        Deque<SourceFileReportStatistic> openDirectories = new ArrayDeque<>();
+        for (SourceFileReportStatistic statistic : statistics) {
+            while (!openDirectories.isEmpty() && openDirectories.peek().getDepth() >= statistic.getDepth()) {
+                reporter.onDirectoryComplete(openDirectories.pop());
+            }
+
+            if (statistic.isDirectory()) {
+                reporter.onDirectoryStart(statistic.getPath(), statistic.getDepth());
+                openDirectories.push(statistic);
+            } else {
+                reporter.onFile(statistic);
+            }
+        }
+
+        while (!openDirectories.isEmpty()) {
+            reporter.onDirectoryComplete(openDirectories.pop());
+        }
+        reporter.finish();
+    }
+}
@@ -0,0 +1,30 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Receives statistics while the tree is counted: a directory is announced when it is entered and
+ * reported with its total once its whole subtree is done, so nothing but the open directories has
+ * to be kept in memory. Collected statistics are written by replaying them through the same callbacks.
+ */
+public interface StreamingReporter extends Reporter {
+    @Override
+    default void write(List<SourceFileReportStatistic> statistics) {
+        StatisticsReplayer.replay(statistics, this);
+    }
+
+    void onDirectoryStart(Path path, int depth);
+
+    void onFile(SourceFileReportStatistic statistic);
+
+    void onDirectoryComplete(SourceFileReportStatistic statistic);
+
+    /**
+     * Called once after the root is complete.
+     */
+    default void finish() {
+    }
+}
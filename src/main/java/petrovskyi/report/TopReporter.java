@@ -0,0 +1,125 @@
+package petrovskyi.report;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.ByteChannelWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Prints only the largest files and directories. Each kind is kept in a min-heap bounded by the limit,
+ * the smallest of the kept entries on top, so memory stays proportional to the limit however big the tree is.
+ */
+public class TopReporter implements Reporter, StreamingReporter {
+    private static final Comparator<SourceFileReportStatistic> BY_LINES_NUMBER =
+            Comparator.comparingInt(SourceFileReportStatistic::getLinesNumber)
+                    .thenComparing(SourceFileReportStatistic::getPath, Comparator.reverseOrder());
+
+    private final ByteChannelWriter writer;
+    private final int limit;
+    private final PriorityQueue<SourceFileReportStatistic> files;
+    private final PriorityQueue<SourceFileReportStatistic> directories;
+    private Path rootPath;
+
+    public TopReporter(WritableByteChannel channel, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Top limit must be positive, got " + limit);
+        }
+
+        this.writer = new ByteChannelWriter(channel);
+        this.limit = limit;
+        this.files = new PriorityQueue<>(limit + 1, BY_LINES_NUMBER);
+        this.directories = new PriorityQueue<>(limit + 1, BY_LINES_NUMBER);
+    }
+
+    @Override
+    public void write(List<SourceFileReportStatistic> statistics) {
+        for (SourceFileReportStatistic statistic : statistics) {
+            if (statistic.isDirectory()) {
+                onDirectoryStart(statistic.getPath(), statistic.getDepth());
+                onDirectoryComplete(statistic);
+            } else {
+                onFile(statistic);
+            }
+        }
+        finish();
+    }
+
+    @Override
+    public void onDirectoryStart(Path path, int depth) {
+        if (depth == 0) {
+            rootPath = path;
+        }
+    }
+
+    @Override
+    public void onFile(SourceFileReportStatistic statistic) {
+        offer(files, statistic);
+    }
+
+    @Override
+    public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+        if (statistic.getDepth() > 0) { // the root would always lead the list
+            offer(directories, statistic);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            print("files", files);
+            print("directories", directories);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<SourceFileReportStatistic> getFiles() {
+        return descending(new PriorityQueue<>(files));
+    }
+
+    public List<SourceFileReportStatistic> getDirectories() {
+        return descending(new PriorityQueue<>(directories));
+    }
+
+    private void offer(PriorityQueue<SourceFileReportStatistic> heap, SourceFileReportStatistic statistic) {
+        if (heap.size() < limit) {
+            heap.add(statistic);
+        } else if (BY_LINES_NUMBER.compare(statistic, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(statistic);
+        }
+    }
+
+    private void print(String kind, PriorityQueue<SourceFileReportStatistic> heap) throws IOException {
+        writer.writeUtf8("Top " + limit + " " + kind + ":\n");
+        for (SourceFileReportStatistic statistic : descending(new PriorityQueue<>(heap))) {
+            Path path = statistic.getPath();
+            if (rootPath != null && path.startsWith(rootPath)) {
+                path = rootPath.relativize(path);
+            }
+
+            writer.writeUtf8(ConsoleReporter.indent(1)
+                    .append(path)
+                    .append(" : ")
+                    .append(statistic.getLinesNumber())
+                    .append(statistic.isGenerated() ? " (generated)\n" : "\n"));
+        }
+    }
+
+    private static List<SourceFileReportStatistic> descending(PriorityQueue<SourceFileReportStatistic> heap) {
+        SourceFileReportStatistic[] statistics = new SourceFileReportStatistic[heap.size()];
+        for (int i = statistics.length - 1; i >= 0; i--) {
+            statistics[i] = heap.poll(); // smallest first, so the array fills from the end
+        }
+
+        return Arrays.asList(statistics);
+    }
+}
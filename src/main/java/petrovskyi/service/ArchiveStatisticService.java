@@ -0,0 +1,68 @@
+package petrovskyi.service;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.counter.LineCounter;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Counts the sources packed into a ZIP or JAR archive. Every entry is counted straight from the inflater,
+ * nothing is extracted to disk, and the archive shows up as a directory at the root of the statistics.
+ */
+@RequiredArgsConstructor
+public class ArchiveStatisticService {
+    private final String extension;
+    private final LineCounter lineCounter;
+
+    public List<SourceFileReportStatistic> getStatistics(Path archivePath) throws IOException {
+        StatisticTreeBuilder statisticTreeBuilder = new StatisticTreeBuilder(archivePath);
+
+        try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    statisticTreeBuilder.addDirectory(entry.getName());
+                } else if (entry.getName().endsWith(extension)) {
+                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                        statisticTreeBuilder.addFile(entry.getName(), lineCounter.count(inputStream));
+                    }
+                }
+            }
+        }
+
+        return statisticTreeBuilder.build();
+    }
+
+    public List<SourceFileReportStatistic> getStatistics(InputStream archiveStream, Path archivePath) throws IOException {
+        StatisticTreeBuilder statisticTreeBuilder = new StatisticTreeBuilder(archivePath);
+
+        ZipInputStream zipInputStream = new ZipInputStream(archiveStream);
+        InputStream entryStream = new FilterInputStream(zipInputStream) {
+            @Override
+            public void close() {
+                // the counter must not close the whole archive after the first entry
+            }
+        };
+
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                statisticTreeBuilder.addDirectory(entry.getName());
+            } else if (entry.getName().endsWith(extension)) {
+                statisticTreeBuilder.addFile(entry.getName(), lineCounter.count(entryStream));
+            }
+        }
+
+        return statisticTreeBuilder.build();
+    }
+}
@@ -1,15 +1,19 @@
 package petrovskyi.service;
 
 import lombok.RequiredArgsConstructor;
+import petrovskyi.checker.GeneratedSourceChecker;
+import petrovskyi.checker.SourceFileGuard;
 import petrovskyi.counter.LineCounter;
 import petrovskyi.entity.FileDirectoryHierarchy;
+import petrovskyi.entity.GeneratedSourcePolicy;
 import petrovskyi.entity.SourceFileReportStatistic;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -18,14 +22,30 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class FileStatisticService {
     private final LineCounter lineCounter;
+    private final GeneratedSourceChecker generatedSourceChecker;
+    private final GeneratedSourcePolicy generatedSourcePolicy;
+    private final SourceFileGuard sourceFileGuard;
+
+    public FileStatisticService(LineCounter lineCounter) {
+        this(lineCounter, null, GeneratedSourcePolicy.COUNT, null);
+    }
 
     public List<SourceFileReportStatistic> getStatistics(Path root, FileDirectoryHierarchy fileDirectoryHierarchy) throws IOException {
+        return getStatistics(root, fileDirectoryHierarchy, null);
+    }
+
+    /**
+     * Like {@link #getStatistics(Path, FileDirectoryHierarchy)}, but with the files already decided on
+     * by {@link #decide(Path)}; files missing from {@code pathToDecision} are left out.
+     */
+    public List<SourceFileReportStatistic> getStatistics(Path root, FileDirectoryHierarchy fileDirectoryHierarchy,
+                                                         Map<Path, Decision> pathToDecision) throws IOException {
         boolean isDirectory = Files.isDirectory(root);
         List<SourceFileReportStatistic> statistics = new ArrayList<>();
 
         if (isDirectory) {
             int totalLinesNumber = getTotalCodeLinesAndFillStatistics(root,
-                    fileDirectoryHierarchy.getFileDirectoryPathToFiles(), 1, statistics);
+                    fileDirectoryHierarchy.getFileDirectoryPathToFiles(), 1, statistics, pathToDecision);
 
             SourceFileReportStatistic statistic = new SourceFileReportStatistic();
             statistic.setPath(root);
@@ -37,7 +57,8 @@ public class FileStatisticService {
 
             Collections.reverse(statistics); //reverse list to get folders on the first places
         } else {
-            getTotalCodeLinesAndFillStatistics(root, fileDirectoryHierarchy.getFileDirectoryPathToFiles(), 0, statistics);
+            getTotalCodeLinesAndFillStatistics(root, fileDirectoryHierarchy.getFileDirectoryPathToFiles(), 0, statistics,
+                    pathToDecision);
         }
 
         return statistics;
@@ -47,6 +68,14 @@ public class FileStatisticService {
                                            Map<Path, List<Path>> fileDirectoryPathToFiles,
                                            int depth,
                                            List<SourceFileReportStatistic> statistics) throws IOException {
+        return getTotalCodeLinesAndFillStatistics(startPath, fileDirectoryPathToFiles, depth, statistics, null);
+    }
+
+    private int getTotalCodeLinesAndFillStatistics(Path startPath,
+                                                   Map<Path, List<Path>> fileDirectoryPathToFiles,
+                                                   int depth,
+                                                   List<SourceFileReportStatistic> statistics,
+                                                   Map<Path, Decision> pathToDecision) throws IOException {
         List<Path> paths = fileDirectoryPathToFiles.get(startPath);
         if (paths == null) {
             return 0;
@@ -62,12 +91,18 @@ public class FileStatisticService {
 
             if (Files.isDirectory(path)) {
                 statistic.setDirectory(true);
-                linesNumber = getTotalCodeLinesAndFillStatistics(path, fileDirectoryPathToFiles, depth + 1, statistics);
+                linesNumber = getTotalCodeLinesAndFillStatistics(path, fileDirectoryPathToFiles, depth + 1, statistics,
+                        pathToDecision);
             } else {
-                try (InputStream inputStream = new FileInputStream(path.toString())) {
-                    linesNumber = lineCounter.count(inputStream);
-                }
                 statistic.setDirectory(false);
+                Decision decision = pathToDecision == null
+                        ? decide(path)
+                        : pathToDecision.getOrDefault(path, Decision.SKIP);
+                if (decision == Decision.SKIP) {
+                    continue;
+                }
+                statistic.setGenerated(decision == Decision.COUNT_GENERATED);
+                linesNumber = lineCounter.count(path);
             }
 
             statistic.setLinesNumber(linesNumber);
@@ -78,4 +113,54 @@ public class FileStatisticService {
 
         return totalLinesNumber;
     }
+
+    /**
+     * Counts a single file {@link #decide(Path) decided on} already, tagging it when it is generated.
+     */
+    public SourceFileReportStatistic getFileStatistic(Path path, int depth, Decision decision) throws IOException {
+        SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+        statistic.setPath(path);
+        statistic.setDepth(depth);
+        statistic.setDirectory(false);
+        statistic.setGenerated(decision == Decision.COUNT_GENERATED);
+        statistic.setLinesNumber(lineCounter.count(path));
+
+        return statistic;
+    }
+
+    /**
+     * Applies the guard and the generated sources policy to a file. The head of the file is read once
+     * and shared by both checks; without either of them the file is not opened at all.
+     */
+    public Decision decide(Path path) throws IOException {
+        boolean checkGenerated = generatedSourcePolicy != GeneratedSourcePolicy.COUNT;
+        if (sourceFileGuard == null && !checkGenerated) {
+            return Decision.COUNT;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int headSize = Math.max(SourceFileGuard.HEAD_SIZE, checkGenerated ? generatedSourceChecker.getHeadSize() : 0);
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(headSize, size));
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                // a channel may return less than asked for
+            }
+
+            if (sourceFileGuard != null
+                    && sourceFileGuard.check(path, size, head.array(), head.position()) == SourceFileGuard.Verdict.SKIP) {
+                return Decision.SKIP;
+            }
+            if (checkGenerated && generatedSourceChecker.isGenerated(head.array(), head.position())) {
+                return generatedSourcePolicy == GeneratedSourcePolicy.EXCLUDE ? Decision.SKIP : Decision.COUNT_GENERATED;
+            }
+
+            return Decision.COUNT;
+        }
+    }
+
+    public enum Decision {
+        COUNT,
+        COUNT_GENERATED,
+        SKIP
+    }
 }
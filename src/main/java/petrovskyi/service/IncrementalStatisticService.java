@@ -0,0 +1,226 @@
+package petrovskyi.service;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SnapshotEntry;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Same statistics as {@link FileStatisticService}, but reuses the counts of the previous snapshot.
+ * A directory whose own mtime did not change has the same entries as before, so its children are taken from
+ * the snapshot instead of listing it. Every file is still compared by size and mtime and recounted when it differs,
+ * since editing a file in place does not touch the mtime of its directory.
+ */
+@RequiredArgsConstructor
+public class IncrementalStatisticService {
+    private final String extension;
+    private final FileStatisticService fileStatisticService;
+
+    public List<SourceFileReportStatistic> getStatistics(Path root, MappedSnapshot previous, Snapshot current) throws IOException {
+        MappedSnapshot previousSnapshot = root.toString().equals(previous.getRoot())
+                ? previous
+                : MappedSnapshot.empty();
+        current.setRoot(root.toString());
+
+        List<SourceFileReportStatistic> statistics = new ArrayList<>();
+        BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class);
+
+        if (attributes.isDirectory()) {
+            SourceFileReportStatistic statistic = SourceFileReportStatistic.of(root, 0, true, 0);
+            statistic.setLinesNumber(getTotalCodeLinesAndFillStatistics(root, "", attributes, 1,
+                    previousSnapshot, current, statistics));
+            statistics.add(statistic);
+
+            Collections.reverse(statistics); //reverse list to get folders on the first places
+        } else {
+            SourceFileReportStatistic fileStatistic = getFileStatistic(root, "", attributes, 0, previousSnapshot, current);
+            if (fileStatistic != null) {
+                statistics.add(fileStatistic);
+            }
+        }
+
+        return statistics;
+    }
+
+    int getTotalCodeLinesAndFillStatistics(Path directory,
+                                           String relativeDirectory,
+                                           BasicFileAttributes directoryAttributes,
+                                           int depth,
+                                           MappedSnapshot previousSnapshot,
+                                           Snapshot current,
+                                           List<SourceFileReportStatistic> statistics) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        List<BasicFileAttributes> pathAttributes = new ArrayList<>();
+
+        int previousIndex = previousSnapshot.indexOf(relativeDirectory);
+        boolean listingUnchanged = previousIndex >= 0 && previousSnapshot.isDirectory(previousIndex)
+                && previousSnapshot.getLastModified(previousIndex) == directoryAttributes.lastModifiedTime().toMillis()
+                && fillPreviousChildren(directory, relativeDirectory, previousIndex, previousSnapshot, paths, pathAttributes);
+        if (!listingUnchanged) {
+            fillChildren(directory, paths, pathAttributes);
+        }
+
+        long digest = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            digest += childDigest(paths.get(i).getFileName().toString(), pathAttributes.get(i));
+        }
+
+        int totalLinesNumber = 0;
+        int linesNumber;
+
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            BasicFileAttributes attributes = pathAttributes.get(i);
+            String relativePath = relativeDirectory.isEmpty()
+                    ? path.getFileName().toString()
+                    : relativeDirectory + '/' + path.getFileName();
+
+            SourceFileReportStatistic statistic;
+            if (attributes.isDirectory()) {
+                statistic = SourceFileReportStatistic.of(path, depth, true, 0);
+                linesNumber = getTotalCodeLinesAndFillStatistics(path, relativePath, attributes, depth + 1,
+                        previousSnapshot, current, statistics);
+                statistic.setLinesNumber(linesNumber);
+            } else {
+                statistic = getFileStatistic(path, relativePath, attributes, depth, previousSnapshot, current);
+                if (statistic == null) {
+                    continue;
+                }
+                linesNumber = statistic.getLinesNumber();
+            }
+
+            totalLinesNumber += linesNumber;
+
+            statistics.add(statistic);
+        }
+
+        SnapshotEntry entry = new SnapshotEntry();
+        entry.setPath(relativeDirectory);
+        entry.setDirectory(true);
+        entry.setLinesNumber(totalLinesNumber);
+        entry.setSize(paths.size());
+        entry.setLastModified(directoryAttributes.lastModifiedTime().toMillis());
+        entry.setDigest(digest);
+        current.getPathToEntry().put(relativeDirectory, entry);
+
+        return totalLinesNumber;
+    }
+
+    private void fillChildren(Path directory, List<Path> paths, List<BasicFileAttributes> pathAttributes) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                if (!attributes.isDirectory() && !child.toString().endsWith(extension)) {
+                    continue;
+                }
+
+                paths.add(child);
+                pathAttributes.add(attributes);
+            }
+        }
+    }
+
+    /**
+     * Snapshot entries are sorted so that a directory is directly followed by its subtree; the children of the
+     * directory are the entries one level deeper until the depth drops back to the directory.
+     *
+     * @return false when a child is gone after all or a skipped file left no entry, the directory has to be listed then
+     */
+    private boolean fillPreviousChildren(Path directory,
+                                         String relativeDirectory,
+                                         int previousIndex,
+                                         MappedSnapshot previousSnapshot,
+                                         List<Path> paths,
+                                         List<BasicFileAttributes> pathAttributes) throws IOException {
+        int directoryDepth = previousSnapshot.getDepth(previousIndex);
+        int index = previousIndex + 1;
+        while (index < previousSnapshot.getEntriesNumber() && previousSnapshot.getDepth(index) > directoryDepth) {
+            if (previousSnapshot.getDepth(index) == directoryDepth + 1) {
+                String relativePath = previousSnapshot.getPath(index);
+                Path path = directory.resolve(relativeDirectory.isEmpty()
+                        ? relativePath
+                        : relativePath.substring(relativeDirectory.length() + 1));
+                try {
+                    pathAttributes.add(Files.readAttributes(path, BasicFileAttributes.class));
+                } catch (NoSuchFileException e) {
+                    paths.clear();
+                    pathAttributes.clear();
+                    return false;
+                }
+                paths.add(path);
+            }
+            index++;
+        }
+
+        if (paths.size() != previousSnapshot.getSize(previousIndex)) {
+            paths.clear();
+            pathAttributes.clear();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the statistic of the file, null when {@link FileStatisticService#decide(Path)} skips it;
+     * a skipped file gets no snapshot entry, so it is decided on again in the next run
+     */
+    private SourceFileReportStatistic getFileStatistic(Path path,
+                                                       String relativePath,
+                                                       BasicFileAttributes attributes,
+                                                       int depth,
+                                                       MappedSnapshot previousSnapshot,
+                                                       Snapshot current) throws IOException {
+        FileStatisticService.Decision decision = fileStatisticService.decide(path);
+        if (decision == FileStatisticService.Decision.SKIP) {
+            return null;
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        int previousIndex = previousSnapshot.indexOf(relativePath);
+
+        SourceFileReportStatistic statistic;
+        if (previousIndex >= 0 && !previousSnapshot.isDirectory(previousIndex)
+                && previousSnapshot.getSize(previousIndex) == attributes.size()
+                && previousSnapshot.getLastModified(previousIndex) == lastModified) {
+            statistic = SourceFileReportStatistic.of(path, depth, false, previousSnapshot.getLinesNumber(previousIndex));
+            statistic.setGenerated(decision == FileStatisticService.Decision.COUNT_GENERATED);
+        } else {
+            statistic = fileStatisticService.getFileStatistic(path, depth, decision);
+        }
+
+        SnapshotEntry entry = new SnapshotEntry();
+        entry.setPath(relativePath);
+        entry.setDirectory(false);
+        entry.setLinesNumber(statistic.getLinesNumber());
+        entry.setSize(attributes.size());
+        entry.setLastModified(lastModified);
+        current.getPathToEntry().put(relativePath, entry);
+
+        return statistic;
+    }
+
+    private long childDigest(String name, BasicFileAttributes attributes) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = (hash ^ attributes.size()) * 0x100000001b3L;
+        hash = (hash ^ attributes.lastModifiedTime().toMillis()) * 0x100000001b3L;
+        hash = (hash ^ (attributes.isDirectory() ? 1 : 0)) * 0x100000001b3L;
+
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,128 @@
+package petrovskyi.service;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the files listed in a manifest instead of walking the tree. Every path is counted as soon
+ * as it is read and the hierarchy is rebuilt from the path prefixes, so the manifest is never held
+ * in memory as a whole. Listed files go through the same {@link FileStatisticService#decide(Path) decision}
+ * as walked ones; paths outside of the root and missing files are skipped with a warning, since a
+ * manifest is often produced before the tree changes.
+ */
+@RequiredArgsConstructor
+public class ManifestStatisticService {
+    public static final byte NEWLINE_DELIMITER = '\n';
+    public static final byte NUL_DELIMITER = 0;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+    private final FileStatisticService fileStatisticService;
+    private int skippedPathsNumber;
+
+    /**
+     * @param manifest  paths separated by {@code delimiter}, relative ones are resolved against {@code root}
+     * @param root      directory the report is rooted at, listed paths must be inside it
+     * @param delimiter {@link #NEWLINE_DELIMITER} or {@link #NUL_DELIMITER}
+     */
+    public List<SourceFileReportStatistic> getStatistics(InputStream manifest, Path root, byte delimiter) throws IOException {
+        StatisticTreeBuilder statisticTreeBuilder = new StatisticTreeBuilder(root);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] record = new byte[256];
+        int recordLength = 0;
+        int read;
+        while ((read = manifest.read(buffer)) > 0) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != delimiter) {
+                    continue;
+                }
+
+                int length = i - start;
+                if (recordLength == 0) {
+                    addPath(statisticTreeBuilder, root, buffer, start, length, delimiter);
+                } else {
+                    record = append(record, recordLength, buffer, start, length);
+                    addPath(statisticTreeBuilder, root, record, 0, recordLength + length, delimiter);
+                    recordLength = 0;
+                }
+                start = i + 1;
+            }
+
+            record = append(record, recordLength, buffer, start, read - start);
+            recordLength += read - start;
+        }
+        addPath(statisticTreeBuilder, root, record, 0, recordLength, delimiter); // last path may lack a delimiter
+
+        return statisticTreeBuilder.build();
+    }
+
+    private void addPath(StatisticTreeBuilder statisticTreeBuilder, Path root,
+                         byte[] bytes, int offset, int length, byte delimiter) throws IOException {
+        if (delimiter == NEWLINE_DELIMITER && length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+
+        String manifestPath = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        if (!manifestPath.endsWith(extension)) {
+            return;
+        }
+
+        Path path = root.resolve(manifestPath).normalize();
+        if (!path.startsWith(root)) {
+            skip("Manifest path " + manifestPath + " is outside of " + root);
+            return;
+        }
+        if (!Files.isRegularFile(path)) {
+            skip("Manifest path " + manifestPath + " is not an existing file");
+            return;
+        }
+
+        FileStatisticService.Decision decision = fileStatisticService.decide(path);
+        if (decision == FileStatisticService.Decision.SKIP) {
+            return;
+        }
+
+        String memberPath = root.relativize(path).toString();
+        if (File.separatorChar != '/') {
+            memberPath = memberPath.replace(File.separatorChar, '/');
+        }
+
+        SourceFileReportStatistic statistic = fileStatisticService.getFileStatistic(path, 0, decision);
+        statisticTreeBuilder.addFile(memberPath, statistic.getLinesNumber(), statistic.isGenerated());
+    }
+
+    /**
+     * Number of listed paths skipped for being outside of the root or missing, over all manifests read.
+     */
+    public int getSkippedPathsNumber() {
+        return skippedPathsNumber;
+    }
+
+    private void skip(String warning) {
+        skippedPathsNumber++;
+        System.err.println("Warning: " + warning + ", skipped.");
+    }
+
+    private byte[] append(byte[] record, int recordLength, byte[] bytes, int offset, int length) {
+        if (recordLength + length > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + length));
+        }
+        System.arraycopy(bytes, offset, record, recordLength, length);
+
+        return record;
+    }
+}
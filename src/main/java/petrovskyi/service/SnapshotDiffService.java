@@ -0,0 +1,66 @@
+package petrovskyi.service;
+
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.SnapshotDifference;
+
+import java.util.function.Consumer;
+
+/**
+ * Merge join of two snapshots over their sorted path order. Both snapshots are scanned once and
+ * every difference is handed to the consumer right away, so memory does not depend on the tree size.
+ */
+public class SnapshotDiffService {
+
+    public void diff(MappedSnapshot previous, MappedSnapshot current, Consumer<SnapshotDifference> consumer) {
+        int previousIndex = 0;
+        int currentIndex = 0;
+
+        while (previousIndex < previous.getEntriesNumber() || currentIndex < current.getEntriesNumber()) {
+            int comparison;
+            if (previousIndex >= previous.getEntriesNumber()) {
+                comparison = 1;
+            } else if (currentIndex >= current.getEntriesNumber()) {
+                comparison = -1;
+            } else {
+                comparison = previous.comparePath(previousIndex, current, currentIndex);
+            }
+
+            if (comparison < 0) {
+                consumer.accept(difference(SnapshotDifference.Type.REMOVED, previous, previousIndex,
+                        previous.getLinesNumber(previousIndex), 0));
+                previousIndex++;
+            } else if (comparison > 0) {
+                consumer.accept(difference(SnapshotDifference.Type.ADDED, current, currentIndex,
+                        0, current.getLinesNumber(currentIndex)));
+                currentIndex++;
+            } else {
+                int previousLinesNumber = previous.getLinesNumber(previousIndex);
+                int currentLinesNumber = current.getLinesNumber(currentIndex);
+                if (previous.isDirectory(previousIndex) != current.isDirectory(currentIndex)) {
+                    consumer.accept(difference(SnapshotDifference.Type.REMOVED, previous, previousIndex,
+                            previousLinesNumber, 0));
+                    consumer.accept(difference(SnapshotDifference.Type.ADDED, current, currentIndex,
+                            0, currentLinesNumber));
+                } else if (previousLinesNumber != currentLinesNumber) {
+                    consumer.accept(difference(SnapshotDifference.Type.CHANGED, current, currentIndex,
+                            previousLinesNumber, currentLinesNumber));
+                }
+                previousIndex++;
+                currentIndex++;
+            }
+        }
+    }
+
+    private SnapshotDifference difference(SnapshotDifference.Type type, MappedSnapshot snapshot, int index,
+                                          int previousLinesNumber, int currentLinesNumber) {
+        SnapshotDifference difference = new SnapshotDifference();
+        difference.setType(type);
+        difference.setPath(snapshot.getPath(index));
+        difference.setDirectory(snapshot.isDirectory(index));
+        difference.setDepth(snapshot.getDepth(index));
+        difference.setPreviousLinesNumber(previousLinesNumber);
+        difference.setCurrentLinesNumber(currentLinesNumber);
+
+        return difference;
+    }
+}
@@ -0,0 +1,133 @@
+package petrovskyi.service;
+
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SnapshotEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotService {
+
+    public MappedSnapshot load(Path snapshotPath) throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return MappedSnapshot.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            if (channel.size() < MappedSnapshot.HEADER_SIZE) {
+                return MappedSnapshot.empty();
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MappedSnapshot.MAGIC || buffer.getInt(4) != MappedSnapshot.VERSION) {
+                return MappedSnapshot.empty(); // unknown format, start from nothing
+            }
+
+            return new MappedSnapshot(buffer);
+        }
+    }
+
+    public void save(Snapshot snapshot, Path snapshotPath) throws IOException {
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        ByteBuffer buffer = encode(snapshot);
+
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public ByteBuffer encode(Snapshot snapshot) {
+        byte[] root = snapshot.getRoot() == null ? new byte[0] : snapshot.getRoot().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> paths = new ArrayList<>(snapshot.getPathToEntry().size());
+        long stringsLength = root.length;
+        for (String path : snapshot.getPathToEntry().keySet()) {
+            byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+            paths.add(bytes);
+            stringsLength += bytes.length;
+        }
+
+        int entriesNumber = paths.size();
+        long stringsOffset = MappedSnapshot.HEADER_SIZE + (long) entriesNumber * MappedSnapshot.RECORD_SIZE;
+        if (stringsOffset + stringsLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot with " + entriesNumber + " entries exceeds 2 GB");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (stringsOffset + stringsLength));
+        int filesNumber = 0;
+        int directoriesNumber = 0;
+        long totalLinesNumber = 0;
+
+        buffer.position(MappedSnapshot.HEADER_SIZE);
+        int pathOffset = root.length;
+        int index = 0;
+        for (SnapshotEntry entry : snapshot.getPathToEntry().values()) {
+            byte[] path = paths.get(index++);
+
+            buffer.putInt(pathOffset);
+            buffer.putInt(path.length);
+            buffer.putInt(entry.getLinesNumber());
+            buffer.putShort((short) depth(entry.getPath()));
+            buffer.put(entry.isDirectory() ? MappedSnapshot.DIRECTORY_FLAG : 0);
+            buffer.put((byte) 0);
+            buffer.putLong(entry.getSize());
+            buffer.putLong(entry.getLastModified());
+            buffer.putLong(entry.getDigest());
+            pathOffset += path.length;
+
+            if (entry.isDirectory()) {
+                directoriesNumber++;
+            } else {
+                filesNumber++;
+            }
+            if (entry.getPath().isEmpty()) {
+                totalLinesNumber = entry.getLinesNumber();
+            }
+        }
+
+        buffer.put(root);
+        for (byte[] path : paths) {
+            buffer.put(path);
+        }
+
+        buffer.putInt(0, MappedSnapshot.MAGIC);
+        buffer.putInt(4, MappedSnapshot.VERSION);
+        buffer.putInt(8, entriesNumber);
+        buffer.putInt(12, filesNumber);
+        buffer.putInt(16, directoriesNumber);
+        buffer.putInt(20, root.length);
+        buffer.putLong(24, totalLinesNumber);
+        buffer.putLong(32, stringsOffset);
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private int depth(String path) {
+        if (path.isEmpty()) {
+            return 0;
+        }
+
+        int depth = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+
+        return depth;
+    }
+}
@@ -0,0 +1,111 @@
+package petrovskyi.service;
+
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds directory rollups from '/' separated member paths that arrive in any order,
+ * e.g. entries of an archive or a manifest, and lays them out like {@link FileStatisticService} does.
+ * Nodes keep only their name, full paths are resolved once while building, so adding a path is
+ * linear in its length.
+ */
+public class StatisticTreeBuilder {
+    private final Path rootPath;
+    private final Node root;
+
+    public StatisticTreeBuilder(Path rootPath) {
+        this.rootPath = rootPath;
+        root = new Node();
+    }
+
+    public void addFile(String memberPath, int linesNumber) {
+        addFile(memberPath, linesNumber, false);
+    }
+
+    public void addFile(String memberPath, int linesNumber, boolean isGenerated) {
+        Node node = getOrCreate(memberPath);
+        node.isDirectory = false;
+        node.isGenerated = isGenerated;
+        node.linesNumber = linesNumber;
+    }
+
+    public void addDirectory(String memberPath) {
+        getOrCreate(memberPath);
+    }
+
+    public List<SourceFileReportStatistic> build() {
+        List<SourceFileReportStatistic> statistics = new ArrayList<>();
+
+        SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+        statistic.setPath(rootPath);
+        statistic.setDepth(0);
+        statistic.setDirectory(true);
+        statistic.setLinesNumber(fillStatistics(rootPath, root, 1, statistics));
+        statistics.add(statistic);
+
+        Collections.reverse(statistics); //reverse list to get folders on the first places
+
+        return statistics;
+    }
+
+    private int fillStatistics(Path directoryPath, Node directory, int depth, List<SourceFileReportStatistic> statistics) {
+        if (directory.children == null) {
+            return 0;
+        }
+
+        int totalLinesNumber = 0;
+
+        for (Map.Entry<String, Node> child : directory.children.entrySet()) {
+            Node node = child.getValue();
+            Path path = directoryPath.resolve(child.getKey());
+
+            SourceFileReportStatistic statistic = new SourceFileReportStatistic();
+            statistic.setPath(path);
+            statistic.setDepth(depth);
+            statistic.setDirectory(node.isDirectory);
+            statistic.setGenerated(node.isGenerated);
+
+            int linesNumber = node.isDirectory ? fillStatistics(path, node, depth + 1, statistics) : node.linesNumber;
+            statistic.setLinesNumber(linesNumber);
+            totalLinesNumber += linesNumber;
+
+            statistics.add(statistic);
+        }
+
+        return totalLinesNumber;
+    }
+
+    private Node getOrCreate(String memberPath) {
+        Node node = root;
+        int start = 0;
+        while (start < memberPath.length()) {
+            int end = memberPath.indexOf('/', start);
+            if (end < 0) {
+                end = memberPath.length();
+            }
+
+            if (end > start && !(end - start == 1 && memberPath.charAt(start) == '.')) {
+                if (node.children == null) {
+                    node.children = new LinkedHashMap<>();
+                }
+                node = node.children.computeIfAbsent(memberPath.substring(start, end), key -> new Node());
+            }
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    private static class Node {
+        private Map<String, Node> children; // created with the first child, files never get one
+        private boolean isDirectory = true;
+        private boolean isGenerated;
+        private int linesNumber;
+    }
+}
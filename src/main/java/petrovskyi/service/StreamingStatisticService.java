@@ -0,0 +1,101 @@
+package petrovskyi.service;
+
+import petrovskyi.counter.AsyncLineCounter;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.report.StreamingReporter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the tree depth first straight from directory streams and hands every entry to a
+ * {@link StreamingReporter} as soon as it is known. Unlike {@link FileDirectoryService} with
+ * {@link FileStatisticService} no hierarchy or statistics list is built, memory only grows with the
+ * entries of the directories on the current path. Files are decided on and counted by the given
+ * {@link FileStatisticService}; with an {@link AsyncLineCounter} the kept files of a directory are
+ * submitted to it before the directory is walked.
+ */
+public class StreamingStatisticService {
+    private final String extension;
+    private final FileStatisticService fileStatisticService;
+    private final AsyncLineCounter asyncLineCounter;
+
+    public StreamingStatisticService(String extension, FileStatisticService fileStatisticService) {
+        this(extension, fileStatisticService, null);
+    }
+
+    /**
+     * @param asyncLineCounter the counter {@code fileStatisticService} counts through, or {@code null}
+     */
+    public StreamingStatisticService(String extension, FileStatisticService fileStatisticService,
+                                     AsyncLineCounter asyncLineCounter) {
+        this.extension = extension;
+        this.fileStatisticService = fileStatisticService;
+        this.asyncLineCounter = asyncLineCounter;
+    }
+
+    public int getStatistics(Path root, StreamingReporter reporter) throws IOException {
+        int totalLinesNumber = 0;
+        if (Files.isDirectory(root)) {
+            totalLinesNumber = walk(root, 0, reporter);
+        } else {
+            FileStatisticService.Decision decision = fileStatisticService.decide(root);
+            if (decision != FileStatisticService.Decision.SKIP) {
+                SourceFileReportStatistic statistic = fileStatisticService.getFileStatistic(root, 0, decision);
+                reporter.onFile(statistic);
+                totalLinesNumber = statistic.getLinesNumber();
+            }
+        }
+        reporter.finish();
+
+        return totalLinesNumber;
+    }
+
+    private int walk(Path directory, int depth, StreamingReporter reporter) throws IOException {
+        reporter.onDirectoryStart(directory, depth);
+
+        List<Path> entries = new ArrayList<>();
+        Map<Path, FileStatisticService.Decision> pathToDecision = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+            for (Path path : paths) {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    entries.add(path);
+                } else if (path.toString().endsWith(extension)) {
+                    FileStatisticService.Decision decision = fileStatisticService.decide(path);
+                    if (decision != FileStatisticService.Decision.SKIP) {
+                        entries.add(path);
+                        pathToDecision.put(path, decision);
+                        files.add(path);
+                    }
+                }
+            }
+        }
+        if (asyncLineCounter != null) {
+            asyncLineCounter.submit(files);
+        }
+
+        int totalLinesNumber = 0;
+        for (Path path : entries) {
+            FileStatisticService.Decision decision = pathToDecision.get(path);
+            if (decision == null) {
+                totalLinesNumber += walk(path, depth + 1, reporter);
+            } else {
+                SourceFileReportStatistic statistic = fileStatisticService.getFileStatistic(path, depth + 1, decision);
+                reporter.onFile(statistic);
+                totalLinesNumber += statistic.getLinesNumber();
+            }
+        }
+
+        reporter.onDirectoryComplete(SourceFileReportStatistic.of(directory, depth, true, totalLinesNumber));
+
+        return totalLinesNumber;
+    }
+}
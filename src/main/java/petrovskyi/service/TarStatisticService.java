@@ -0,0 +1,69 @@
+package petrovskyi.service;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.counter.LineCounter;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.util.TarInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Counts the sources of a tar or gzip compressed tar stream in one sequential pass,
+ * so the archive can come from a pipe as well as from a file.
+ */
+@RequiredArgsConstructor
+public class TarStatisticService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+    private final LineCounter lineCounter;
+
+    public List<SourceFileReportStatistic> getStatistics(Path archivePath) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(archivePath)) {
+            return getStatistics(inputStream, archivePath);
+        }
+    }
+
+    public List<SourceFileReportStatistic> getStatistics(InputStream archiveStream, Path archivePath) throws IOException {
+        InputStream inputStream = new BufferedInputStream(archiveStream, BUFFER_SIZE);
+        if (isGzip(inputStream)) {
+            inputStream = new BufferedInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE), BUFFER_SIZE);
+        }
+
+        StatisticTreeBuilder statisticTreeBuilder = new StatisticTreeBuilder(archivePath);
+        TarInputStream tarInputStream = new TarInputStream(inputStream);
+        InputStream entryStream = new FilterInputStream(tarInputStream) {
+            @Override
+            public void close() {
+                // the counter must not close the whole archive after the first entry
+            }
+        };
+
+        TarInputStream.Entry entry;
+        while ((entry = tarInputStream.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                statisticTreeBuilder.addDirectory(entry.getName());
+            } else if (entry.isFile() && entry.getName().endsWith(extension)) {
+                statisticTreeBuilder.addFile(entry.getName(), lineCounter.count(entryStream));
+            }
+        }
+
+        return statisticTreeBuilder.build();
+    }
+
+    static boolean isGzip(InputStream inputStream) throws IOException {
+        inputStream.mark(2);
+        int first = inputStream.read();
+        int second = inputStream.read();
+        inputStream.reset();
+
+        return first == 0x1f && second == 0x8b;
+    }
+}
@@ -0,0 +1,28 @@
+package petrovskyi.util;
+
+import petrovskyi.entity.ApplicationArguments;
+
+public class ArgumentParser {
+    private static final String OPTION_PREFIX = "--";
+
+    public static ApplicationArguments parse(String[] args) {
+        ApplicationArguments applicationArguments = new ApplicationArguments();
+
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX) && arg.length() > OPTION_PREFIX.length()) {
+                String option = arg.substring(OPTION_PREFIX.length());
+                int separatorIndex = option.indexOf('=');
+                if (separatorIndex < 0) {
+                    applicationArguments.getOptions().put(option, "");
+                } else {
+                    applicationArguments.getOptions().put(option.substring(0, separatorIndex),
+                            option.substring(separatorIndex + 1));
+                }
+            } else {
+                applicationArguments.getPaths().add(arg);
+            }
+        }
+
+        return applicationArguments;
+    }
+}
@@ -0,0 +1,213 @@
+package petrovskyi.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer of text straight into a byte channel. Numbers, UTF-8 and escaped strings are encoded
+ * into the buffer in place, so writing a record allocates nothing.
+ */
+public class ByteChannelWriter implements Flushable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int count;
+
+    public ByteChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ByteChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.bytes = new byte[Math.max(bufferSize, 64)];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    public ByteChannelWriter write(int b) throws IOException {
+        if (count == bytes.length) {
+            flushBuffer();
+        }
+        bytes[count++] = (byte) b;
+
+        return this;
+    }
+
+    public ByteChannelWriter write(byte[] source) throws IOException {
+        return write(source, 0, source.length);
+    }
+
+    public ByteChannelWriter write(byte[] source, int offset, int length) throws IOException {
+        if (length > bytes.length - count) {
+            flushBuffer();
+            if (length > bytes.length) {
+                ByteBuffer sourceBuffer = ByteBuffer.wrap(source, offset, length);
+                while (sourceBuffer.hasRemaining()) {
+                    channel.write(sourceBuffer);
+                }
+                return this;
+            }
+        }
+        System.arraycopy(source, offset, bytes, count, length);
+        count += length;
+
+        return this;
+    }
+
+    public ByteChannelWriter writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(MIN_LONG);
+        }
+        if (bytes.length - count < 20) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            bytes[count++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = count + digits - 1; i >= count; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+
+        return this;
+    }
+
+    public ByteChannelWriter writeUtf8(CharSequence chars) throws IOException {
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                write(c);
+            } else {
+                i = writeNonAscii(chars, i);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the quoted JSON string literal of {@code chars}.
+     */
+    public ByteChannelWriter writeJsonString(CharSequence chars) throws IOException {
+        return writeJsonString(chars, false);
+    }
+
+    /**
+     * @param escapeMarkup also escape {@code <}, so the literal can be embedded in an HTML script element
+     */
+    public ByteChannelWriter writeJsonString(CharSequence chars, boolean escapeMarkup) throws IOException {
+        write('"');
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c >= 0x80) {
+                i = writeNonAscii(chars, i);
+                continue;
+            }
+
+            switch (c) {
+                case '"':
+                case '\\':
+                    write('\\').write(c);
+                    break;
+                case '\n':
+                    write('\\').write('n');
+                    break;
+                case '\r':
+                    write('\\').write('r');
+                    break;
+                case '\t':
+                    write('\\').write('t');
+                    break;
+                default:
+                    if (c < 0x20 || (escapeMarkup && c == '<')) {
+                        write('\\').write('u').write('0').write('0')
+                                .write(HEX_DIGITS[c >> 4]).write(HEX_DIGITS[c & 0xf]);
+                    } else {
+                        write(c);
+                    }
+            }
+        }
+
+        return write('"');
+    }
+
+    /**
+     * Writes {@code chars} as one field of a delimited text record, quoted and with doubled quotes
+     * only when it contains the delimiter, a quote or a line break.
+     */
+    public ByteChannelWriter writeDelimitedField(CharSequence chars, char delimiter) throws IOException {
+        int length = chars.length();
+        boolean isQuoted = false;
+        for (int i = 0; i < length && !isQuoted; i++) {
+            char c = chars.charAt(i);
+            isQuoted = c == delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!isQuoted) {
+            return writeUtf8(chars);
+        }
+
+        write('"');
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c == '"') {
+                write('"').write('"');
+            } else if (c < 0x80) {
+                write(c);
+            } else {
+                i = writeNonAscii(chars, i);
+            }
+        }
+
+        return write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    private int writeNonAscii(CharSequence chars, int index) throws IOException {
+        char c = chars.charAt(index);
+        if (c < 0x800) {
+            write(0xc0 | c >> 6).write(0x80 | c & 0x3f);
+            return index;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, chars.charAt(index + 1));
+            write(0xf0 | codePoint >> 18).write(0x80 | codePoint >> 12 & 0x3f)
+                    .write(0x80 | codePoint >> 6 & 0x3f).write(0x80 | codePoint & 0x3f);
+            return index + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            write('?'); // unpaired surrogate, like String.getBytes does
+            return index;
+        }
+
+        write(0xe0 | c >> 12).write(0x80 | c >> 6 & 0x3f).write(0x80 | c & 0x3f);
+        return index;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.limit(count).position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        count = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package petrovskyi.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Guesses the encoding of a source from its first bytes: a byte order mark wins, then the NUL
+ * pattern of BOM-less UTF-16, then strict UTF-8 validation with ISO-8859-1 as the fallback.
+ * Pure ASCII is reported as UTF-8.
+ */
+public class CharsetDetector {
+    public static final int HEAD_SIZE = 4 * 1024;
+
+    public static Charset detect(byte[] head, int length) {
+        return detect(ByteBuffer.wrap(head, 0, length));
+    }
+
+    /**
+     * Looks at up to {@link #HEAD_SIZE} bytes from the buffer position without moving it,
+     * so a read buffer, direct or not, can be inspected in place.
+     */
+    public static Charset detect(ByteBuffer buffer) {
+        int offset = buffer.position();
+        int length = Math.min(buffer.remaining(), HEAD_SIZE);
+        if (length >= 3 && unsigned(buffer, offset) == 0xef && unsigned(buffer, offset + 1) == 0xbb
+                && unsigned(buffer, offset + 2) == 0xbf) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && unsigned(buffer, offset) == 0xff && unsigned(buffer, offset + 1) == 0xfe) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (length >= 2 && unsigned(buffer, offset) == 0xfe && unsigned(buffer, offset + 1) == 0xff) {
+            return StandardCharsets.UTF_16BE;
+        }
+
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) == 0) {
+                if ((i & 1) == 0) {
+                    evenZeros++;
+                } else {
+                    oddZeros++;
+                }
+            }
+        }
+        // ASCII text in UTF-16 has a zero in every other byte
+        if (oddZeros * 4 > length && evenZeros * 10 < oddZeros) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (evenZeros * 4 > length && oddZeros * 10 < evenZeros) {
+            return StandardCharsets.UTF_16BE;
+        }
+
+        return isUtf8(buffer, offset, length) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Whether the lexer can work on the raw bytes: true for every ASCII compatible encoding.
+     */
+    public static boolean isByteCompatible(Charset charset) {
+        return !StandardCharsets.UTF_16LE.equals(charset) && !StandardCharsets.UTF_16BE.equals(charset);
+    }
+
+    public static int bomLength(byte[] head, int length) {
+        return bomLength(ByteBuffer.wrap(head, 0, length));
+    }
+
+    public static int bomLength(ByteBuffer buffer) {
+        int offset = buffer.position();
+        int length = buffer.remaining();
+        if (length >= 3 && unsigned(buffer, offset) == 0xef && unsigned(buffer, offset + 1) == 0xbb
+                && unsigned(buffer, offset + 2) == 0xbf) {
+            return 3;
+        }
+        if (length >= 2 && (unsigned(buffer, offset) == 0xff && unsigned(buffer, offset + 1) == 0xfe
+                || unsigned(buffer, offset) == 0xfe && unsigned(buffer, offset + 1) == 0xff)) {
+            return 2;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Reads up to {@code head.length} bytes, fewer only at the end of the stream.
+     */
+    public static int readHead(InputStream inputStream, byte[] head) throws IOException {
+        int length = 0;
+        int read;
+        while (length < head.length && (read = inputStream.read(head, length, head.length - length)) > 0) {
+            length += read;
+        }
+
+        return length;
+    }
+
+    private static boolean isUtf8(ByteBuffer buffer, int offset, int length) {
+        int i = 0;
+        while (i < length) {
+            int b = unsigned(buffer, offset + i);
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int continuationBytes = b >= 0xc2 && b <= 0xdf ? 1 : b >= 0xe0 && b <= 0xef ? 2 : b >= 0xf0 && b <= 0xf4 ? 3 : -1;
+            if (continuationBytes < 0) {
+                return false;
+            }
+            for (int j = 1; j <= continuationBytes; j++) {
+                if (i + j >= length) {
+                    return true; // sequence cut by the end of the head
+                }
+                if ((unsigned(buffer, offset + i + j) & 0xc0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuationBytes + 1;
+        }
+
+        return true;
+    }
+
+    private static int unsigned(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xff;
+    }
+}
@@ -0,0 +1,156 @@
+package petrovskyi.util;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded pool of direct buffers for file reads. No more than {@code maxBuffers} direct buffers are ever
+ * allocated; once they are all taken, {@link #acquire()} waits for one to be released. Handing out a heap
+ * buffer instead would not save off-heap memory, since channel reads into a heap buffer go through a
+ * temporary direct buffer of the JDK.
+ * <p>
+ * Every thread keeps the buffer it released last in its own slot and takes it back on its next acquisition
+ * without touching the shared queue. The slots count against the cap like any other buffer, so an acquirer that
+ * finds the shared queue empty and the cap reached takes a buffer out of another thread's slot before it waits,
+ * and releases go to the shared queue while anybody waits.
+ * <p>
+ * The metrics cover the buffers of this pool only. Reads through streams, e.g. archive members or sources
+ * that have to be decoded, use heap arrays and whatever temporary direct buffers the JDK keeps per thread.
+ */
+public class DirectBufferPool {
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final BlockingQueue<ByteBuffer> freeBuffers = new LinkedBlockingQueue<>();
+    private final Queue<AtomicReference<ByteBuffer>> threadSlots = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<AtomicReference<ByteBuffer>> threadSlot = ThreadLocal.withInitial(this::newThreadSlot);
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicInteger allocatedBuffers = new AtomicInteger();
+    private final AtomicInteger inUseBuffers = new AtomicInteger();
+    private final AtomicLong waits = new AtomicLong();
+
+    public DirectBufferPool(int bufferSize, int maxBuffers) {
+        if (maxBuffers <= 0) {
+            throw new IllegalArgumentException("The number of buffers must be positive, got " + maxBuffers);
+        }
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+    }
+
+    public ByteBuffer acquire() throws InterruptedIOException {
+        ByteBuffer buffer = threadSlot.get().getAndSet(null);
+        if (buffer == null) {
+            buffer = freeBuffers.poll();
+        }
+        if (buffer == null) {
+            buffer = allocate();
+        }
+        if (buffer == null) {
+            buffer = await();
+        }
+
+        inUseBuffers.incrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        inUseBuffers.decrementAndGet();
+        AtomicReference<ByteBuffer> slot = threadSlot.get();
+        if (waiters.get() > 0 || !slot.compareAndSet(null, buffer)) {
+            freeBuffers.add(buffer);
+            return;
+        }
+
+        // a waiter that came in after the check above may have missed the slot, hand the buffer over to it
+        if (waiters.get() > 0) {
+            ByteBuffer parked = slot.getAndSet(null);
+            if (parked != null) {
+                freeBuffers.add(parked);
+            }
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    public long getAllocatedBytes() {
+        return (long) allocatedBuffers.get() * bufferSize;
+    }
+
+    public long getMaxBytes() {
+        return (long) maxBuffers * bufferSize;
+    }
+
+    public int getInUseBuffers() {
+        return inUseBuffers.get();
+    }
+
+    /**
+     * Number of acquisitions that found every buffer taken and had to wait for a release.
+     */
+    public long getWaits() {
+        return waits.get();
+    }
+
+    /**
+     * Registers as a waiter first, so a release either sees the waiter and uses the shared queue
+     * or parks its buffer in a slot that the scan below finds.
+     */
+    private ByteBuffer await() throws InterruptedIOException {
+        waiters.incrementAndGet();
+        try {
+            ByteBuffer buffer = takeFromThreadSlots();
+            if (buffer == null) {
+                waits.incrementAndGet();
+                buffer = freeBuffers.take();
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a read buffer");
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private ByteBuffer takeFromThreadSlots() {
+        for (AtomicReference<ByteBuffer> slot : threadSlots) {
+            ByteBuffer buffer = slot.getAndSet(null);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+
+        return null;
+    }
+
+    private AtomicReference<ByteBuffer> newThreadSlot() {
+        AtomicReference<ByteBuffer> slot = new AtomicReference<>();
+        threadSlots.add(slot);
+        return slot;
+    }
+
+    private ByteBuffer allocate() {
+        while (true) {
+            int allocated = allocatedBuffers.get();
+            if (allocated >= maxBuffers) {
+                return null;
+            }
+            if (allocatedBuffers.compareAndSet(allocated, allocated + 1)) {
+                return ByteBuffer.allocateDirect(bufferSize);
+            }
+        }
+    }
+}
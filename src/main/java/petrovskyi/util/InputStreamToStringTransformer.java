@@ -1,16 +1,36 @@
 package petrovskyi.util;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.util.stream.Collectors;
 
 public class InputStreamToStringTransformer {
 
     public static String transform(InputStream inputStream) {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, CharsetDetector.HEAD_SIZE);
+        Charset charset;
+        try {
+            byte[] head = new byte[CharsetDetector.HEAD_SIZE];
+            bufferedInputStream.mark(head.length);
+            int length = CharsetDetector.readHead(bufferedInputStream, head);
+            bufferedInputStream.reset();
+
+            charset = CharsetDetector.detect(head, length);
+            long bomLength = CharsetDetector.bomLength(head, length);
+            while (bomLength > 0) {
+                bomLength -= bufferedInputStream.skip(bomLength);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
         return new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8)
+                new InputStreamReader(bufferedInputStream, charset)
         )
                 .lines()
                 .collect(Collectors.joining(System.lineSeparator()));
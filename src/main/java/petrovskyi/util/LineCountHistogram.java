@@ -0,0 +1,105 @@
+package petrovskyi.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size histogram of non-negative counts with logarithmic buckets, each power of two split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is known within 1/8 of itself.
+ * Values below {@code 2 * SUB_BUCKETS} get a bucket of their own. Recording is lock-free and
+ * histograms can be added to each other, e.g. from files up to their directories.
+ */
+public class LineCountHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (31 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicInteger maxValue = new AtomicInteger();
+
+    public void record(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be recorded, got " + value);
+        }
+
+        counts.incrementAndGet(index(value));
+        if (value > maxValue.get()) {
+            maxValue.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public void add(LineCountHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    /**
+     * Clears the histogram; not atomic, must not run concurrently with {@link #record(int)}.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        maxValue.set(0);
+    }
+
+    public long getTotalCount() {
+        long totalCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            totalCount += counts.get(i);
+        }
+
+        return totalCount;
+    }
+
+    public int getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the highest value of the bucket holding the percentile, never above the recorded maximum,
+     * or 0 for an empty histogram
+     */
+    public int getValueAtPercentile(double percentile) {
+        long totalCount = getTotalCount();
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+            if (count >= rank) {
+                return Math.min(highestValue(i), maxValue.get());
+            }
+        }
+
+        return maxValue.get();
+    }
+
+    static int index(int value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return value;
+        }
+
+        int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (value >>> shift);
+    }
+
+    static int highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        int subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return (int) Math.min(((long) (subBucket + 1) << shift) - 1, Integer.MAX_VALUE);
+    }
+}
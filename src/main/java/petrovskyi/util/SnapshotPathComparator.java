@@ -0,0 +1,61 @@
+package petrovskyi.util;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+/**
+ * Orders '/' separated paths so that every directory is directly followed by its subtree:
+ * the separator sorts before any other character and the rest compares by code point,
+ * which is the same order as comparing the UTF-8 bytes.
+ */
+public class SnapshotPathComparator implements Comparator<String> {
+    public static final SnapshotPathComparator INSTANCE = new SnapshotPathComparator();
+
+    @Override
+    public int compare(String first, String second) {
+        int firstIndex = 0;
+        int secondIndex = 0;
+        while (firstIndex < first.length() && secondIndex < second.length()) {
+            int firstCodePoint = first.codePointAt(firstIndex);
+            int secondCodePoint = second.codePointAt(secondIndex);
+            if (firstCodePoint != secondCodePoint) {
+                return Integer.compare(weight(firstCodePoint), weight(secondCodePoint));
+            }
+            firstIndex += Character.charCount(firstCodePoint);
+            secondIndex += Character.charCount(secondCodePoint);
+        }
+
+        return Integer.compare(first.length() - firstIndex, second.length() - secondIndex);
+    }
+
+    public static int compare(byte[] first, ByteBuffer second, int secondOffset, int secondLength) {
+        int length = Math.min(first.length, secondLength);
+        for (int i = 0; i < length; i++) {
+            int firstByte = first[i] & 0xff;
+            int secondByte = second.get(secondOffset + i) & 0xff;
+            if (firstByte != secondByte) {
+                return Integer.compare(weight(firstByte), weight(secondByte));
+            }
+        }
+
+        return Integer.compare(first.length, secondLength);
+    }
+
+    public static int compare(ByteBuffer first, int firstOffset, int firstLength,
+                              ByteBuffer second, int secondOffset, int secondLength) {
+        int length = Math.min(firstLength, secondLength);
+        for (int i = 0; i < length; i++) {
+            int firstByte = first.get(firstOffset + i) & 0xff;
+            int secondByte = second.get(secondOffset + i) & 0xff;
+            if (firstByte != secondByte) {
+                return Integer.compare(weight(firstByte), weight(secondByte));
+            }
+        }
+
+        return Integer.compare(firstLength, secondLength);
+    }
+
+    private static int weight(int codePoint) {
+        return codePoint == '/' ? -1 : codePoint;
+    }
+}
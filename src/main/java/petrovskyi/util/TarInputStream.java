@@ -0,0 +1,290 @@
+package petrovskyi.util;
+
+import lombok.Data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal sequential tar reader: ustar headers with prefix, GNU long names and PAX paths.
+ * After {@link #getNextEntry()} the stream reads the data of that entry only, so the archive
+ * is consumed in one pass without seeking.
+ */
+public class TarInputStream extends FilterInputStream {
+    public static final int BLOCK_SIZE = 512;
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 100;
+    private static final int SIZE_OFFSET = 124;
+    private static final int SIZE_LENGTH = 12;
+    private static final int CHECKSUM_OFFSET = 148;
+    private static final int CHECKSUM_LENGTH = 8;
+    private static final int TYPE_OFFSET = 156;
+    private static final int MAGIC_OFFSET = 257;
+    private static final int PREFIX_OFFSET = 345;
+    private static final int PREFIX_LENGTH = 155;
+    // long names and PAX headers are read into memory; real ones are a few hundred bytes
+    private static final int MAX_METADATA_SIZE = 1024 * 1024;
+
+    private final byte[] header = new byte[BLOCK_SIZE];
+    private long entryRemaining;
+    private long entryPadding;
+
+    public TarInputStream(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    public static boolean isTarHeader(byte[] block) {
+        return block.length >= BLOCK_SIZE
+                && block[MAGIC_OFFSET] == 'u' && block[MAGIC_OFFSET + 1] == 's' && block[MAGIC_OFFSET + 2] == 't'
+                && block[MAGIC_OFFSET + 3] == 'a' && block[MAGIC_OFFSET + 4] == 'r';
+    }
+
+    public Entry getNextEntry() throws IOException {
+        String longName = null;
+
+        while (true) {
+            skipFully(entryRemaining + entryPadding);
+            entryRemaining = 0;
+            entryPadding = 0;
+
+            if (!readHeader()) {
+                return null;
+            }
+
+            char type = (char) header[TYPE_OFFSET];
+            long size = parseSize();
+            entryRemaining = size;
+            entryPadding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+
+            if (type == 'L') {
+                longName = trimName(readEntryData(size));
+                continue;
+            }
+            if (type == 'x') {
+                String paxPath = parsePaxPath(readEntryData(size));
+                if (paxPath != null) {
+                    longName = paxPath;
+                }
+                continue;
+            }
+            if (type == 'g') {
+                continue;
+            }
+
+            Entry entry = new Entry();
+            entry.setName(longName != null ? longName : headerName());
+            entry.setSize(size);
+            entry.setDirectory(type == '5' || entry.getName().endsWith("/"));
+            entry.setFile(type == '0' || type == '\0' || type == '7');
+
+            return entry;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (entryRemaining <= 0) {
+            return -1;
+        }
+
+        int value = super.read();
+        if (value < 0) {
+            throw new EOFException("Unexpected end of tar entry");
+        }
+        entryRemaining--;
+
+        return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (entryRemaining <= 0) {
+            return -1;
+        }
+
+        int read = super.read(bytes, offset, (int) Math.min(length, entryRemaining));
+        if (read < 0) {
+            throw new EOFException("Unexpected end of tar entry");
+        }
+        entryRemaining -= read;
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, entryRemaining));
+        entryRemaining -= skipped;
+
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), entryRemaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private boolean readHeader() throws IOException {
+        int read = 0;
+        while (read < BLOCK_SIZE) {
+            int count = in.read(header, read, BLOCK_SIZE - read);
+            if (count < 0) {
+                if (read == 0) {
+                    return false; // archive without end of archive blocks
+                }
+                throw new EOFException("Truncated tar header");
+            }
+            read += count;
+        }
+
+        boolean zeroBlock = true;
+        for (byte b : header) {
+            if (b != 0) {
+                zeroBlock = false;
+                break;
+            }
+        }
+        if (zeroBlock) {
+            return false;
+        }
+
+        long expectedChecksum = parseOctal(CHECKSUM_OFFSET, CHECKSUM_LENGTH);
+        long checksum = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            checksum += i >= CHECKSUM_OFFSET && i < CHECKSUM_OFFSET + CHECKSUM_LENGTH ? ' ' : header[i] & 0xff;
+        }
+        if (checksum != expectedChecksum) {
+            throw new IOException("Invalid tar header checksum");
+        }
+
+        return true;
+    }
+
+    private byte[] readEntryData(long size) throws IOException {
+        if (size > MAX_METADATA_SIZE) {
+            throw new IOException("Tar metadata entry of " + size + " bytes exceeds " + MAX_METADATA_SIZE + " bytes");
+        }
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream((int) size);
+        byte[] buffer = new byte[BLOCK_SIZE];
+        int read;
+        while ((read = read(buffer, 0, buffer.length)) > 0) {
+            data.write(buffer, 0, read);
+        }
+
+        return data.toByteArray();
+    }
+
+    private void skipFully(long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of tar archive");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private String headerName() {
+        String name = string(NAME_OFFSET, NAME_LENGTH);
+        if (isTarHeader(header)) {
+            String prefix = string(PREFIX_OFFSET, PREFIX_LENGTH);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+
+        return name;
+    }
+
+    private long parseSize() {
+        if ((header[SIZE_OFFSET] & 0x80) != 0) { // base-256 for entries of 8 GB and more
+            long size = 0;
+            for (int i = SIZE_OFFSET + 1; i < SIZE_OFFSET + SIZE_LENGTH; i++) {
+                size = (size << 8) | (header[i] & 0xff);
+            }
+            return size;
+        }
+
+        return parseOctal(SIZE_OFFSET, SIZE_LENGTH);
+    }
+
+    private long parseOctal(int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b >= '0' && b <= '7') {
+                value = value * 8 + (b - '0');
+            } else if (b == 0 || (b == ' ' && value > 0)) {
+                break;
+            }
+        }
+
+        return value;
+    }
+
+    private String string(int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private String trimName(byte[] data) {
+        int end = 0;
+        while (end < data.length && data[end] != 0) {
+            end++;
+        }
+
+        return new String(data, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private String parsePaxPath(byte[] data) throws IOException {
+        // records look like "<length> <key>=<value>\n", the length counts the whole record
+        int position = 0;
+        while (position < data.length) {
+            int space = position;
+            int recordLength = 0;
+            while (space < data.length && data[space] >= '0' && data[space] <= '9' && recordLength <= data.length) {
+                recordLength = recordLength * 10 + (data[space] - '0');
+                space++;
+            }
+            if (space == position || space >= data.length || data[space] != ' '
+                    || recordLength <= space - position + 1 || recordLength > data.length - position
+                    || data[position + recordLength - 1] != '\n') {
+                throw new IOException("Malformed PAX header record at offset " + position);
+            }
+
+            String record = new String(data, space + 1, position + recordLength - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                return record.substring("path=".length());
+            }
+            position += recordLength;
+        }
+
+        return null;
+    }
+
+    @Data
+    public static class Entry {
+        private String name;
+        private long size;
+        private boolean isDirectory;
+        private boolean isFile;
+    }
+}
@@ -0,0 +1,110 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.ArchiveStatisticService;
+import petrovskyi.service.TarStatisticService;
+import petrovskyi.util.TarInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts the sources inside zip and tar archives. Every member with the source extension is counted as it is:
+ * the generated sources policy and the size and binary guard of {@link petrovskyi.service.FileStatisticService}
+ * only apply to files on disk, since a member can only be checked by reading it and the counters read it once.
+ */
+@RequiredArgsConstructor
+public class ArchiveCountJavaSourceCodeLinesWorker {
+    public static final List<String> ZIP_EXTENSIONS = Collections.unmodifiableList(Arrays.asList(".jar", ".zip"));
+    public static final List<String> TAR_EXTENSIONS = Collections.unmodifiableList(Arrays.asList(
+            ".tar", ".tar.gz", ".tgz"));
+    public static final List<String> ARCHIVE_EXTENSIONS = Collections.unmodifiableList(
+            Stream.concat(ZIP_EXTENSIONS.stream(), TAR_EXTENSIONS.stream()).collect(Collectors.toList()));
+
+    private final ArchiveStatisticService archiveStatisticService;
+    private final TarStatisticService tarStatisticService;
+
+    public static boolean isArchive(Path path) {
+        return hasExtension(path, ARCHIVE_EXTENSIONS);
+    }
+
+    /**
+     * Tells a zip, gzip or tar stream from a plain document; the stream must support mark and is left unread.
+     */
+    public static boolean isArchive(InputStream inputStream) throws IOException {
+        byte[] head = new byte[TarInputStream.BLOCK_SIZE];
+        inputStream.mark(head.length);
+        int read = 0;
+        int count;
+        while (read < head.length && (count = inputStream.read(head, read, head.length - read)) > 0) {
+            read += count;
+        }
+        inputStream.reset();
+
+        boolean zip = read >= 4 && head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4;
+        boolean gzip = read >= 2 && (head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b;
+
+        return zip || gzip || (read == head.length && TarInputStream.isTarHeader(head));
+    }
+
+    public List<SourceFileReportStatistic> getStatistics(Path archivePath) {
+        List<SourceFileReportStatistic> statistics;
+        try {
+            if (hasExtension(archivePath, TAR_EXTENSIONS)) {
+                statistics = tarStatisticService.getStatistics(archivePath);
+            } else {
+                statistics = archiveStatisticService.getStatistics(archivePath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get archive petrovskyi.report statistic for " + archivePath, e);
+        }
+        return statistics;
+    }
+
+    public List<SourceFileReportStatistic> getStatistics(InputStream archiveStream, Path archivePath) {
+        List<SourceFileReportStatistic> statistics;
+        try {
+            InputStream inputStream = new BufferedInputStream(archiveStream);
+            if (isZip(inputStream)) {
+                statistics = archiveStatisticService.getStatistics(inputStream, archivePath);
+            } else {
+                statistics = tarStatisticService.getStatistics(inputStream, archivePath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get archive petrovskyi.report statistic for " + archivePath, e);
+        }
+        return statistics;
+    }
+
+    private static boolean hasExtension(Path path, List<String> extensions) {
+        String fileName = path.toString();
+        for (String extension : extensions) {
+            if (fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isZip(InputStream inputStream) throws IOException {
+        inputStream.mark(4);
+        byte[] magic = new byte[4];
+        int read = 0;
+        int count;
+        while (read < magic.length && (count = inputStream.read(magic, read, magic.length - read)) > 0) {
+            read += count;
+        }
+        inputStream.reset();
+
+        return read == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+    }
+}
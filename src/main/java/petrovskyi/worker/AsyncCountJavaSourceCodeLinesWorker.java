@@ -0,0 +1,61 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.counter.AsyncLineCounter;
+import petrovskyi.entity.FileDirectoryHierarchy;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.FileDirectoryService;
+import petrovskyi.service.FileStatisticService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Like {@link CountJavaSourceCodeLinesWorker}, but hands every file of the hierarchy that passes
+ * {@link FileStatisticService#decide(Path)} to the {@link AsyncLineCounter} before the statistics are filled,
+ * so reads are in flight while the tree is built.
+ * The given {@link FileStatisticService} has to count through the same {@link AsyncLineCounter}.
+ */
+@RequiredArgsConstructor
+public class AsyncCountJavaSourceCodeLinesWorker {
+    private final FileDirectoryService fileDirectoryService;
+    private final FileStatisticService fileStatisticService;
+    private final AsyncLineCounter asyncLineCounter;
+
+    public List<SourceFileReportStatistic> getStatistics(Path filenamePath) {
+        FileDirectoryHierarchy fileDirectoryHierarchy;
+        try {
+            fileDirectoryHierarchy = fileDirectoryService.getFileDirectoryHierarchy(filenamePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get hierarchy for " + filenamePath, e);
+        }
+
+        try {
+            Map<Path, FileStatisticService.Decision> pathToDecision = new HashMap<>();
+            List<Path> files = new ArrayList<>();
+            for (List<Path> paths : fileDirectoryHierarchy.getFileDirectoryPathToFiles().values()) {
+                for (Path path : paths) {
+                    if (!Files.isRegularFile(path)) {
+                        continue;
+                    }
+
+                    FileStatisticService.Decision decision = fileStatisticService.decide(path);
+                    if (decision != FileStatisticService.Decision.SKIP) {
+                        pathToDecision.put(path, decision);
+                        files.add(path);
+                    }
+                }
+            }
+            asyncLineCounter.submit(files);
+
+            return fileStatisticService.getStatistics(filenamePath, fileDirectoryHierarchy, pathToDecision);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get file(s) petrovskyi.report statistic for " + filenamePath, e);
+        }
+    }
+}
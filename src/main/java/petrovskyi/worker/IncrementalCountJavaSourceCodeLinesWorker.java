@@ -0,0 +1,51 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.IncrementalStatisticService;
+import petrovskyi.service.SnapshotService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class IncrementalCountJavaSourceCodeLinesWorker {
+    private final SnapshotService snapshotService;
+    private final IncrementalStatisticService incrementalStatisticService;
+    private final Path snapshotPath;
+
+    public List<SourceFileReportStatistic> getStatistics(Path filenamePath) {
+        MappedSnapshot previous = loadSnapshot();
+        Snapshot current = new Snapshot();
+
+        List<SourceFileReportStatistic> statistics;
+        try {
+            statistics = incrementalStatisticService.getStatistics(filenamePath, previous, current);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get file(s) petrovskyi.report statistic for " + filenamePath, e);
+        }
+
+        saveSnapshot(current);
+
+        return statistics;
+    }
+
+    private MappedSnapshot loadSnapshot() {
+        try {
+            return snapshotService.load(snapshotPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to load snapshot " + snapshotPath, e);
+        }
+    }
+
+    private void saveSnapshot(Snapshot snapshot) {
+        try {
+            snapshotService.save(snapshot, snapshotPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to save snapshot " + snapshotPath, e);
+        }
+    }
+}
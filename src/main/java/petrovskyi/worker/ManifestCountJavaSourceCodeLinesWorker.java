@@ -0,0 +1,34 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.ManifestStatisticService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ManifestCountJavaSourceCodeLinesWorker {
+    private final ManifestStatisticService manifestStatisticService;
+
+    public List<SourceFileReportStatistic> getStatistics(Path manifestPath, Path root, byte delimiter) {
+        try (InputStream inputStream = Files.newInputStream(manifestPath)) {
+            return getStatistics(inputStream, root, delimiter);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to read manifest " + manifestPath, e);
+        }
+    }
+
+    public List<SourceFileReportStatistic> getStatistics(InputStream manifest, Path root, byte delimiter) {
+        List<SourceFileReportStatistic> statistics;
+        try {
+            statistics = manifestStatisticService.getStatistics(manifest, root, delimiter);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get manifest petrovskyi.report statistic for " + root, e);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,223 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.counter.ExecutorLineCounter;
+import petrovskyi.entity.FileDirectoryHierarchy;
+import petrovskyi.entity.MultiRootStatistics;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.FileDirectoryService;
+import petrovskyi.service.FileStatisticService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Counts many roots in one run on a shared pool. Roots nested in other roots are not counted again:
+ * their reports are cut out of the statistics of the outermost root that contains them.
+ * The files of all directory roots are decided and counted as separate tasks, so one large root is counted
+ * by the whole pool; an archive is read as one stream and counts on a single thread.
+ * The given {@link FileStatisticService} has to count through the same {@link ExecutorLineCounter}.
+ */
+@RequiredArgsConstructor
+public class MultiRootCountJavaSourceCodeLinesWorker {
+    public static final Path COMBINED_ROOT = Paths.get("total");
+
+    private final FileDirectoryService fileDirectoryService;
+    private final FileStatisticService fileStatisticService;
+    private final ExecutorLineCounter executorLineCounter;
+    private final ArchiveCountJavaSourceCodeLinesWorker archiveCountJavaSourceCodeLinesWorker;
+    private final ExecutorService executorService;
+
+    public MultiRootStatistics getStatistics(List<Path> roots) {
+        List<Path> realRoots = roots.stream()
+                .map(MultiRootCountJavaSourceCodeLinesWorker::toRealPath)
+                .distinct()
+                .collect(Collectors.toList());
+        List<Path> outermostRoots = getOutermostRoots(realRoots);
+
+        Map<Path, Future<List<SourceFileReportStatistic>>> archiveToFuture = new HashMap<>();
+        Map<Path, Future<FileDirectoryHierarchy>> rootToHierarchyFuture = new LinkedHashMap<>();
+        for (Path root : outermostRoots) {
+            if (isArchiveRoot(root)) {
+                archiveToFuture.put(root, executorService.submit(() -> archiveCountJavaSourceCodeLinesWorker.getStatistics(root)));
+            } else {
+                rootToHierarchyFuture.put(root, executorService.submit(() -> fileDirectoryService.getFileDirectoryHierarchy(root)));
+            }
+        }
+
+        Map<Path, FileDirectoryHierarchy> rootToHierarchy = new HashMap<>();
+        Map<Path, Future<FileStatisticService.Decision>> pathToDecisionFuture = new LinkedHashMap<>();
+        for (Map.Entry<Path, Future<FileDirectoryHierarchy>> rootAndFuture : rootToHierarchyFuture.entrySet()) {
+            FileDirectoryHierarchy fileDirectoryHierarchy = getResult(rootAndFuture.getKey(), rootAndFuture.getValue());
+            rootToHierarchy.put(rootAndFuture.getKey(), fileDirectoryHierarchy);
+            for (List<Path> paths : fileDirectoryHierarchy.getFileDirectoryPathToFiles().values()) {
+                for (Path path : paths) {
+                    pathToDecisionFuture.computeIfAbsent(path, key -> executorService.submit(() -> decide(key)));
+                }
+            }
+        }
+
+        Map<Path, FileStatisticService.Decision> pathToDecision = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<Path, Future<FileStatisticService.Decision>> pathAndFuture : pathToDecisionFuture.entrySet()) {
+            FileStatisticService.Decision decision = getResult(pathAndFuture.getKey(), pathAndFuture.getValue());
+            if (decision != FileStatisticService.Decision.SKIP) {
+                pathToDecision.put(pathAndFuture.getKey(), decision);
+                files.add(pathAndFuture.getKey());
+            }
+        }
+        executorLineCounter.submit(files);
+
+        Map<Path, List<SourceFileReportStatistic>> outermostRootToStatistics = new LinkedHashMap<>();
+        for (Path root : outermostRoots) {
+            Future<List<SourceFileReportStatistic>> archiveFuture = archiveToFuture.get(root);
+            outermostRootToStatistics.put(root, archiveFuture == null
+                    ? getDirectoryStatistics(root, rootToHierarchy.get(root), pathToDecision)
+                    : getResult(root, archiveFuture));
+        }
+
+        MultiRootStatistics multiRootStatistics = new MultiRootStatistics();
+        for (Path root : realRoots) {
+            List<SourceFileReportStatistic> statistics = outermostRootToStatistics.get(root);
+            if (statistics == null) {
+                Path outermostRoot = outermostRoots.stream()
+                        .filter(root::startsWith)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("No outermost root for " + root));
+                statistics = getSubtree(outermostRootToStatistics.get(outermostRoot), root);
+            }
+            multiRootStatistics.getRootToStatistics().put(root, statistics);
+        }
+        multiRootStatistics.setCombinedStatistics(combine(outermostRootToStatistics));
+
+        return multiRootStatistics;
+    }
+
+    /**
+     * The directory walk only sees sources, so an archive is never part of the root that contains it
+     * and always counts as an outermost root.
+     */
+    static List<Path> getOutermostRoots(List<Path> roots) {
+        List<Path> sortedRoots = new ArrayList<>(roots);
+        sortedRoots.sort(Comparator.comparingInt(Path::getNameCount));
+
+        List<Path> outermostRoots = new ArrayList<>();
+        for (Path root : sortedRoots) {
+            if (isArchiveRoot(root) || outermostRoots.stream().noneMatch(root::startsWith)) {
+                outermostRoots.add(root);
+            }
+        }
+        outermostRoots.sort(Comparator.comparingInt(roots::indexOf));
+
+        return outermostRoots;
+    }
+
+    /**
+     * Symbolic links and relative spellings of one directory resolve to the same root, so it is counted once.
+     */
+    private static Path toRealPath(Path root) {
+        try {
+            return root.toRealPath();
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to resolve " + root, e);
+        }
+    }
+
+    private static boolean isArchiveRoot(Path root) {
+        return Files.isRegularFile(root) && ArchiveCountJavaSourceCodeLinesWorker.isArchive(root);
+    }
+
+    private FileStatisticService.Decision decide(Path path) throws IOException {
+        return Files.isRegularFile(path) ? fileStatisticService.decide(path) : FileStatisticService.Decision.SKIP;
+    }
+
+    private List<SourceFileReportStatistic> getDirectoryStatistics(Path root, FileDirectoryHierarchy fileDirectoryHierarchy,
+                                                                   Map<Path, FileStatisticService.Decision> pathToDecision) {
+        try {
+            return fileStatisticService.getStatistics(root, fileDirectoryHierarchy, pathToDecision);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get file(s) petrovskyi.report statistic for " + root, e);
+        }
+    }
+
+    private <T> T getResult(Path path, Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while counting " + path, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error while trying to count " + path, e.getCause());
+        }
+    }
+
+    /**
+     * Statistics are in pre-order, so the subtree of a path is the run of entries under it.
+     */
+    private List<SourceFileReportStatistic> getSubtree(List<SourceFileReportStatistic> statistics, Path root) {
+        List<SourceFileReportStatistic> subtree = new ArrayList<>();
+        int baseDepth = -1;
+        for (SourceFileReportStatistic statistic : statistics) {
+            if (baseDepth < 0) {
+                if (statistic.getPath().equals(root)) {
+                    baseDepth = statistic.getDepth();
+                    subtree.add(copy(statistic, 0));
+                }
+            } else if (statistic.getDepth() > baseDepth) {
+                subtree.add(copy(statistic, statistic.getDepth() - baseDepth));
+            } else {
+                break;
+            }
+        }
+
+        return subtree;
+    }
+
+    private List<SourceFileReportStatistic> combine(Map<Path, List<SourceFileReportStatistic>> outermostRootToStatistics) {
+        List<SourceFileReportStatistic> combinedStatistics = new ArrayList<>();
+        SourceFileReportStatistic total = new SourceFileReportStatistic();
+        total.setPath(COMBINED_ROOT);
+        total.setDepth(0);
+        total.setDirectory(true);
+        combinedStatistics.add(total);
+
+        int totalLinesNumber = 0;
+        for (List<SourceFileReportStatistic> statistics : outermostRootToStatistics.values()) {
+            for (SourceFileReportStatistic statistic : statistics) {
+                if (statistic.getDepth() == 0) {
+                    totalLinesNumber += statistic.getLinesNumber();
+                }
+                combinedStatistics.add(copy(statistic, statistic.getDepth() + 1));
+            }
+        }
+        total.setLinesNumber(totalLinesNumber);
+
+        return combinedStatistics;
+    }
+
+    private SourceFileReportStatistic copy(SourceFileReportStatistic statistic, int depth) {
+        SourceFileReportStatistic copy = new SourceFileReportStatistic();
+        copy.setPath(statistic.getPath());
+        copy.setDepth(depth);
+        copy.setDirectory(statistic.isDirectory());
+        copy.setLinesNumber(statistic.getLinesNumber());
+        copy.setGenerated(statistic.isGenerated());
+
+        return copy;
+    }
+}
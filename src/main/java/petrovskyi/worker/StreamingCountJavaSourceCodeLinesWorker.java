@@ -0,0 +1,21 @@
+package petrovskyi.worker;
+
+import lombok.RequiredArgsConstructor;
+import petrovskyi.report.StreamingReporter;
+import petrovskyi.service.StreamingStatisticService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@RequiredArgsConstructor
+public class StreamingCountJavaSourceCodeLinesWorker {
+    private final StreamingStatisticService streamingStatisticService;
+
+    public int getStatistics(Path filenamePath, StreamingReporter reporter) {
+        try {
+            return streamingStatisticService.getStatistics(filenamePath, reporter);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while trying to get file(s) petrovskyi.report statistic for " + filenamePath, e);
+        }
+    }
+}
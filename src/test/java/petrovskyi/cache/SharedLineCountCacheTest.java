@@ -0,0 +1,146 @@
+package petrovskyi.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedLineCountCacheTest {
+    private Path directory;
+    private Path cachePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("cache");
+        cachePath = directory.resolve("counts.log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should share flushed entries with another cache opened on the same file")
+    void shareEntries() throws IOException {
+        try (SharedLineCountCache writer = new SharedLineCountCache(cachePath);
+             SharedLineCountCache reader = new SharedLineCountCache(cachePath)) {
+            writer.put("/src/A.java", 100, 1000, 7);
+            assertNull(reader.get("/src/A.java", 100, 1000));
+
+            writer.flush();
+
+            assertEquals(Integer.valueOf(7), reader.get("/src/A.java", 100, 1000));
+            assertNull(reader.get("/src/A.java", 101, 1000));
+        }
+    }
+
+    @Test
+    @DisplayName("Should read a log tail larger than one read chunk")
+    void shareManyEntries() throws IOException {
+        try (SharedLineCountCache writer = new SharedLineCountCache(cachePath);
+             SharedLineCountCache reader = new SharedLineCountCache(cachePath)) {
+            for (int i = 0; i < 40_000; i++) {
+                writer.put("/src/main/java/com/example/ünïcödé/module/File" + i + ".java", i, 1000, i % 100);
+            }
+            writer.flush();
+            assertTrue(Files.size(cachePath) > 2 * 1024 * 1024);
+
+            assertEquals(Integer.valueOf(99),
+                    reader.get("/src/main/java/com/example/ünïcödé/module/File39999.java", 39_999, 1000));
+            assertEquals(40_000, reader.getEntriesNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep every entry when several caches append concurrently")
+    void appendConcurrently() throws Exception {
+        int writersNumber = 4;
+        int entriesNumber = 3000;
+        ExecutorService executorService = Executors.newFixedThreadPool(writersNumber);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writersNumber; writer++) {
+                int writerIndex = writer;
+                futures.add(executorService.submit(() -> {
+                    try (SharedLineCountCache cache = new SharedLineCountCache(cachePath)) {
+                        for (int i = 0; i < entriesNumber; i++) {
+                            cache.put("/writer" + writerIndex + "/File" + i + ".java", i, i, i);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        try (SharedLineCountCache cache = new SharedLineCountCache(cachePath)) {
+            assertEquals(writersNumber * entriesNumber, cache.getEntriesNumber());
+            assertEquals(Integer.valueOf(42), cache.get("/writer3/File42.java", 42, 42));
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record and append after the last complete one")
+    void recoverTornTail() throws IOException {
+        try (SharedLineCountCache cache = new SharedLineCountCache(cachePath)) {
+            cache.put("/src/A.java", 100, 1000, 7);
+        }
+        long validLength = Files.size(cachePath);
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (SharedLineCountCache cache = new SharedLineCountCache(cachePath)) {
+            assertEquals(Integer.valueOf(7), cache.get("/src/A.java", 100, 1000));
+            cache.put("/src/B.java", 200, 2000, 9);
+        }
+
+        try (SharedLineCountCache cache = new SharedLineCountCache(cachePath)) {
+            assertEquals(Integer.valueOf(9), cache.get("/src/B.java", 200, 2000));
+            assertTrue(Files.size(cachePath) > validLength);
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact superseded records and keep the latest values")
+    void compact() throws IOException {
+        try (SharedLineCountCache cache = new SharedLineCountCache(cachePath);
+             SharedLineCountCache reader = new SharedLineCountCache(cachePath)) {
+            for (int round = 0; round < 40; round++) {
+                for (int i = 0; i < 1000; i++) {
+                    cache.put("/src/File" + i + ".java", round, round, round);
+                }
+                cache.flush();
+            }
+
+            assertTrue(Files.size(cachePath) < 1024 * 1024); // 40000 records without compaction take about 1.8 MB
+            assertEquals(Integer.valueOf(39), reader.get("/src/File999.java", 39, 39));
+            assertEquals(1000, reader.getEntriesNumber());
+        }
+    }
+}
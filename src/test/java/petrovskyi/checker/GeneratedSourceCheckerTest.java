@@ -0,0 +1,69 @@
+package petrovskyi.checker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratedSourceCheckerTest {
+    private final GeneratedSourceChecker generatedSourceChecker = new GeneratedSourceChecker();
+
+    @Test
+    @DisplayName("Should recognize the markers of common code generators")
+    void isGenerated() {
+        assertTrue(isGenerated("package a;\n\n@javax.annotation.Generated(\"apt\")\nclass A {}\n"));
+        assertTrue(isGenerated("// Code generated by mockgen. DO NOT EDIT.\npackage a;\n"));
+        assertTrue(isGenerated("// Generated by the protocol buffer compiler.  DO NOT EDIT!\n// source: a.proto\n"));
+        assertTrue(isGenerated("import javax.annotation.processing.Generated;\n\n@Generated(\"apt\")\nclass A {}\n"));
+        assertTrue(isGenerated("/* @Generated */ @Generated\nclass A {}\n"));
+    }
+
+    @Test
+    @DisplayName("Should not take hand written sources for generated ones")
+    void isNotGenerated() {
+        assertFalse(isGenerated("package a;\n\nclass A {}\n"));
+        assertFalse(isGenerated("// Code generated by hand\n// DO NOT EDIT without review\nclass A {}\n"));
+        assertFalse(isGenerated("@Generat"));
+        assertFalse(isGenerated("@Generated"));
+    }
+
+    @Test
+    @DisplayName("Should not take similar annotations or mentions in comments and literals for the marker")
+    void isNotGeneratedByMention() {
+        assertFalse(isGenerated("@Entity\nclass A {\n    @Id @GeneratedValue\n    long id;\n}\n"));
+        assertFalse(isGenerated("/** Adds {@code @Generated} to the output. */\nclass Processor {}\n"));
+        assertFalse(isGenerated("// @Generated\nclass A {}\n"));
+        assertFalse(isGenerated("class A { String s = \"@Generated(\\\"x\\\")\"; char c = '@'; }\n"));
+        assertFalse(isGenerated("class A { String s = \"\"\"\n    @Generated\n    \"\"\"; }\n"));
+    }
+
+    @Test
+    @DisplayName("Should look at the head of the file only")
+    void isGeneratedBeyondHead() throws IOException {
+        Path path = Files.createTempFile("Late", ".java");
+        try {
+            StringBuilder code = new StringBuilder();
+            while (code.length() < 2 * GeneratedSourceChecker.DEFAULT_HEAD_SIZE) {
+                code.append("int field").append(code.length()).append(";\n");
+            }
+            code.append("@Generated\nclass Late {}\n");
+            Files.write(path, code.toString().getBytes(StandardCharsets.UTF_8));
+
+            assertFalse(generatedSourceChecker.isGenerated(path));
+            assertTrue(new GeneratedSourceChecker(4 * GeneratedSourceChecker.DEFAULT_HEAD_SIZE).isGenerated(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private boolean isGenerated(String head) {
+        byte[] bytes = head.getBytes(StandardCharsets.UTF_8);
+        return generatedSourceChecker.isGenerated(bytes, bytes.length);
+    }
+}
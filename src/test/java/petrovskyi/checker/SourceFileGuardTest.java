@@ -0,0 +1,57 @@
+package petrovskyi.checker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.OversizedSourcePolicy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceFileGuardTest {
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = Files.createTempFile("Guarded", ".java");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    @DisplayName("Should tell binary content from UTF-8 and single byte encoded text")
+    void isBinary() {
+        assertFalse(isBinary("class Café { String s = \"привет\"; }".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(isBinary("// Señor\nclass A {\n int a;\n}\n".getBytes(StandardCharsets.ISO_8859_1)));
+        assertTrue(isBinary(new byte[]{'P', 'K', 3, 4, 0, 0}));
+        assertTrue(isBinary(new byte[]{(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe, (byte) 0xff, 'a', (byte) 0x9f}));
+    }
+
+    @Test
+    @DisplayName("Should skip binaries and apply the policy to files over the maximum size")
+    void check() throws IOException {
+        Files.write(path, "class A {\n}\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(SourceFileGuard.Verdict.COUNT, new SourceFileGuard(1024, OversizedSourcePolicy.FAIL).check(path));
+        assertEquals(SourceFileGuard.Verdict.SKIP, new SourceFileGuard(4, OversizedSourcePolicy.SKIP).check(path));
+        assertEquals(SourceFileGuard.Verdict.STREAM, new SourceFileGuard(4, OversizedSourcePolicy.STREAM).check(path));
+        assertThrows(IOException.class, () -> new SourceFileGuard(4, OversizedSourcePolicy.FAIL).check(path));
+
+        Files.write(path, new byte[]{(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe, 0, 0, 0, 52});
+        assertEquals(SourceFileGuard.Verdict.SKIP, new SourceFileGuard(1024, OversizedSourcePolicy.FAIL).check(path));
+    }
+
+    private boolean isBinary(byte[] head) {
+        return SourceFileGuard.isBinary(head, head.length);
+    }
+}
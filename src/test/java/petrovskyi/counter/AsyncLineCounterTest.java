@@ -0,0 +1,248 @@
+package petrovskyi.counter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.util.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AsyncLineCounterTest {
+    private static final long READ_LATENCY_MILLIS = 20;
+
+    private final ScheduledExecutorService storage = Executors.newScheduledThreadPool(4);
+    private final AtomicInteger readsInFlight = new AtomicInteger();
+    private final AtomicInteger maxReadsInFlight = new AtomicInteger();
+    private final AsyncFileChannelOpener slowStorage = path -> new LatencyInjectingChannel(
+            AsynchronousFileChannel.open(path, StandardOpenOption.READ), storage, readsInFlight, maxReadsInFlight);
+    private Path root;
+    private List<Path> files;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("async");
+        files = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            Path file = root.resolve("File" + i + ".java");
+            StringBuilder code = new StringBuilder("/* header\n */\nclass File" + i + " {\n");
+            for (int j = 0; j < i * 500; j++) {
+                code.append(" int field").append(j).append("; // field\n\n");
+            }
+            Files.write(file, code.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        storage.shutdownNow();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should count like the blocking counter")
+    void countAll() throws IOException {
+        JavaSourceLineCounter javaSourceLineCounter = new JavaSourceLineCounter();
+
+        Map<Path, Integer> pathToCount = new AsyncLineCounter(4, javaSourceLineCounter).countAll(files);
+
+        for (Path file : files) {
+            assertEquals(javaSourceLineCounter.count(file), (int) pathToCount.get(file));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep as many reads in flight as allowed on slow storage")
+    void countAllOnSlowStorage() throws IOException {
+        for (int maxInFlight : new int[]{1, 4, 16}) {
+            AsyncLineCounter asyncLineCounter = new AsyncLineCounter(maxInFlight, slowStorage, new JavaSourceLineCounter());
+            maxReadsInFlight.set(0);
+
+            assertEquals(files.size(), asyncLineCounter.countAll(files).size());
+            assertEquals(maxInFlight, maxReadsInFlight.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report unreadable files to the caller")
+    void countMissingFile() {
+        AsyncLineCounter asyncLineCounter = new AsyncLineCounter(2, new JavaSourceLineCounter());
+        asyncLineCounter.submit(files.subList(0, 1));
+        Path missing = root.resolve("Missing.java");
+        asyncLineCounter.submit(Collections.singletonList(missing));
+
+        assertThrows(IOException.class, () -> asyncLineCounter.count(missing));
+    }
+
+    @Test
+    @DisplayName("Should get through a long run of files that cannot be opened")
+    void countManyUnopenableFiles() {
+        List<Path> missing = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            missing.add(root.resolve("Missing" + i + ".java"));
+        }
+        AsyncLineCounter asyncLineCounter = new AsyncLineCounter(1, path -> {
+            throw new NoSuchFileException(path.toString());
+        }, new JavaSourceLineCounter());
+
+        asyncLineCounter.submit(missing);
+
+        assertThrows(NoSuchFileException.class, () -> asyncLineCounter.count(missing.get(missing.size() - 1)));
+    }
+
+    @Test
+    @DisplayName("Should count sources that need decoding on the fallback executor")
+    void countDecodedOnFallbackExecutor() throws IOException {
+        Path utf16File = root.resolve("Utf16.java");
+        Files.write(utf16File, "class Utf16 {\n int a;\n}\n".getBytes(StandardCharsets.UTF_16));
+        AtomicInteger fallbackTasks = new AtomicInteger();
+        ExecutorService fallback = Executors.newSingleThreadExecutor();
+        try {
+            AsyncLineCounter asyncLineCounter = new AsyncLineCounter(2, slowStorage, new JavaSourceLineCounter(), task -> {
+                fallbackTasks.incrementAndGet();
+                fallback.execute(task);
+            }, new DirectBufferPool(AsyncLineCounter.BUFFER_SIZE, 2), null);
+
+            assertEquals(3, (int) asyncLineCounter.countAll(Collections.singletonList(utf16File)).get(utf16File));
+            assertEquals(1, fallbackTasks.get());
+        } finally {
+            fallback.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the file instead of hanging when the completion handler throws")
+    void countWithFailingHandler() {
+        PackageAggregator failingAggregator = new PackageAggregator() {
+            @Override
+            public void add(String packageName, int linesNumber) {
+                throw new IllegalStateException("aggregation failed");
+            }
+        };
+        AsyncLineCounter asyncLineCounter = new AsyncLineCounter(2, slowStorage, new JavaSourceLineCounter(),
+                new DirectBufferPool(AsyncLineCounter.BUFFER_SIZE, 2), failingAggregator);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IOException.class, () -> asyncLineCounter.countAll(files)));
+    }
+
+    /**
+     * Delays the start of every read, like a network filesystem does, and records how many reads overlap.
+     */
+    private static class LatencyInjectingChannel extends AsynchronousFileChannel {
+        private final AsynchronousFileChannel channel;
+        private final ScheduledExecutorService storage;
+        private final AtomicInteger readsInFlight;
+        private final AtomicInteger maxReadsInFlight;
+
+        private LatencyInjectingChannel(AsynchronousFileChannel channel, ScheduledExecutorService storage,
+                                        AtomicInteger readsInFlight, AtomicInteger maxReadsInFlight) {
+            this.channel = channel;
+            this.storage = storage;
+            this.readsInFlight = readsInFlight;
+            this.maxReadsInFlight = maxReadsInFlight;
+        }
+
+        @Override
+        public <A> void read(ByteBuffer dst, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+            maxReadsInFlight.accumulateAndGet(readsInFlight.incrementAndGet(), Math::max);
+            storage.schedule(() -> channel.read(dst, position, attachment, new CompletionHandler<Integer, A>() {
+                @Override
+                public void completed(Integer read, A attachment) {
+                    readsInFlight.decrementAndGet();
+                    handler.completed(read, attachment);
+                }
+
+                @Override
+                public void failed(Throwable e, A attachment) {
+                    readsInFlight.decrementAndGet();
+                    handler.failed(e, attachment);
+                }
+            }), READ_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public Future<Integer> read(ByteBuffer dst, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public AsynchronousFileChannel truncate(long size) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public <A> void lock(long position, long size, boolean shared, A attachment, CompletionHandler<FileLock, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<FileLock> lock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <A> void write(ByteBuffer src, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Integer> write(ByteBuffer src, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
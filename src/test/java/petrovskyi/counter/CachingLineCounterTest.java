@@ -0,0 +1,62 @@
+package petrovskyi.counter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.cache.SharedLineCountCache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingLineCounterTest {
+    private static final FileTime LAST_MODIFIED = FileTime.fromMillis(1_600_000_000_000L);
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("caching");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should share counts between checkouts of the same tree in other places")
+    void countInAnotherCheckout() throws IOException {
+        Path first = directory.resolve("first");
+        Path second = directory.resolve("second");
+        write(first.resolve("src").resolve("A.java"), "class A {\n int a;\n}\n");
+        write(second.resolve("src").resolve("A.java"), "class A {\n int a;\n}\n");
+
+        try (SharedLineCountCache cache = new SharedLineCountCache(directory.resolve("counts.log"))) {
+            CachingLineCounter firstCounter = new CachingLineCounter(new JavaSourceLineCounter(), cache, first);
+            CachingLineCounter secondCounter = new CachingLineCounter(new JavaSourceLineCounter(), cache, second);
+
+            assertEquals(3, firstCounter.count(first.resolve("src").resolve("A.java")));
+            assertEquals(3, secondCounter.count(second.resolve("src").resolve("A.java")));
+
+            assertEquals(1, firstCounter.getMisses());
+            assertEquals(1, secondCounter.getHits());
+            assertEquals(0, secondCounter.getMisses());
+        }
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(path, LAST_MODIFIED);
+    }
+}
@@ -0,0 +1,235 @@
+package petrovskyi.counter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.PackageStatistic;
+import petrovskyi.replacer.CommentReplacer;
+import petrovskyi.util.DirectBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JavaSourceLineCounterTest {
+
+    @Test
+    @DisplayName("Should return 3 lines of source code")
+    void count3Lines() {
+        String code = "// This file contains 3 lines of code\n" +
+                "    public interface Dave {\n" +
+                "        /**\n" +
+                "         * count the number of lines in a file\n" +
+                "         */\n" +
+                "        int countLines(File inFile); // not the real signature!\n" +
+                "    }";
+
+        LineCounter lineCounter = new JavaSourceLineCounter();
+
+        assertEquals(3, lineCounter.count(new ByteArrayInputStream(code.getBytes())));
+    }
+
+    @Test
+    @DisplayName("Should return 5 lines of source code")
+    void count5Lines() {
+        String code = "/*****\n" +
+                "* This is a test program with 5 lines of code\n" +
+                "*  \\/* no nesting allowed!\n" +
+                "//*****/\n" +
+                "/***/// Slightly pathological comment ending...\n" +
+                "\n" +
+                "public class Hello {\n" +
+                "    public static final void main(String[] args) { // gotta love Java\n" +
+                "        // Say hello\n" +
+                "        System./*wait*/out./*for*/println/*it*/(\"Hello/*\");\n" +
+                "    }\n" +
+                "\n" +
+                "}";
+
+        LineCounter lineCounter = new JavaSourceLineCounter();
+
+        assertEquals(5, lineCounter.count(new ByteArrayInputStream(code.getBytes())));
+    }
+
+    @Test
+    @DisplayName("Should count the same lines as the comment replacing counter for resource files")
+    void countLikeSourceCodeLineCounter() throws IOException {
+        LineCounter expectedLineCounter = new SourceCodeLineCounter(new CommentReplacer());
+        LineCounter lineCounter = new JavaSourceLineCounter();
+
+        for (String fileName : new String[]{"BigFile.java", "BigFile2.java", "BigFile3.java", "Dave.java", "Hello.java"}) {
+            Path path = Paths.get("src", "test", "resources", fileName).toAbsolutePath();
+            try (InputStream inputStream = new FileInputStream(path.toFile())) {
+                assertEquals(expectedLineCounter.count(inputStream), lineCounter.count(path), fileName);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume appended and edited files from the checkpoints of the previous run")
+    void countFromCheckpoints() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoints");
+        Path path = directory.resolve("Appended.java");
+        Path storePath = directory.resolve("lines.checkpoints");
+        try {
+            StringBuilder code = new StringBuilder("/* header\n comment */\n");
+            for (int i = 0; i < 500; i++) {
+                code.append("int field").append(i).append("; // \"comment\"\n/*\n*/\n");
+            }
+            Files.write(path, code.toString().getBytes(StandardCharsets.UTF_8));
+
+            try (LexerCheckpointStore checkpointStore = new LexerCheckpointStore(storePath)) {
+                assertEquals(500, new JavaSourceLineCounter(1024, checkpointStore, null).count(path));
+            }
+            long checkpointedSize = Files.size(path) / 1024 * 1024;
+
+            Files.write(path, "String s = \"/*\";\nint last;\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+            try (LexerCheckpointStore checkpointStore = new LexerCheckpointStore(storePath)) {
+                JavaSourceLineCounter lineCounter = new JavaSourceLineCounter(1024, checkpointStore, null);
+                assertEquals(502, lineCounter.count(path));
+                assertEquals(Files.size(path) - checkpointedSize, lineCounter.getLexedBytes());
+                assertEquals(new JavaSourceLineCounter().count(path), lineCounter.count(path));
+
+                byte[] bytes = Files.readAllBytes(path);
+                bytes[2] = '/'; // "/*//eader" is still a block comment
+                bytes[3] = '/';
+                Files.write(path, bytes);
+                Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+
+                assertEquals(new JavaSourceLineCounter().count(path), lineCounter.count(path));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(storePath);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count past the last checkpoint a file may keep and evict the least recent files")
+    void countWithBoundedCheckpoints() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoints");
+        Path first = directory.resolve("First.java");
+        Path second = directory.resolve("Second.java");
+        Path storePath = directory.resolve("lines.checkpoints");
+        try {
+            StringBuilder code = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                code.append("int field").append(i).append(";\n");
+            }
+            Files.write(first, code.toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(second, code.toString().getBytes(StandardCharsets.UTF_8));
+
+            LexerCheckpointStore checkpointStore = new LexerCheckpointStore(storePath, 1, 2);
+            JavaSourceLineCounter lineCounter = new JavaSourceLineCounter(16, checkpointStore, null);
+            assertEquals(100, lineCounter.count(first));
+            assertEquals(2, checkpointStore.get(first.toAbsolutePath().toString()).getCheckpoints().size());
+
+            assertEquals(100, lineCounter.count(second));
+            assertNull(checkpointStore.get(first.toAbsolutePath().toString()));
+            checkpointStore.close();
+
+            assertEquals(100, new JavaSourceLineCounter(16, new LexerCheckpointStore(storePath, 1, 2), null).count(second));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+            Files.deleteIfExists(storePath);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count in-memory documents like streamed ones")
+    void countInMemory() {
+        String code = "/* header */ package a;\n\nclass A { // a\n String s = \"/*\";\n}\n";
+        JavaSourceLineCounter lineCounter = new JavaSourceLineCounter();
+        ByteBuffer buffer = ByteBuffer.wrap(code.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(4, lineCounter.count(new ByteArrayInputStream(code.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(4, lineCounter.count(new StringBuilder(code)));
+        assertEquals(4, lineCounter.count(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Should count sources in other encodings like their UTF-8 version")
+    void countEncodings() throws IOException {
+        String code = "\n// Señor\nclass A { /* ü\n */\n String s = \"ß\";\n}\n";
+        JavaSourceLineCounter lineCounter = new JavaSourceLineCounter();
+        JavaSourceLineCounter checkpointingLineCounter =
+                new JavaSourceLineCounter(16, new LexerCheckpointStore(Paths.get("unused.checkpoints")), null); // never closed
+
+        String[] sources = {"\uFEFF" + code, code, "\uFEFF" + code, code, code};
+        Charset[] charsets = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+                StandardCharsets.UTF_16LE, StandardCharsets.UTF_16LE, StandardCharsets.UTF_16};
+        for (int i = 0; i < sources.length; i++) {
+            byte[] bytes = sources[i].getBytes(charsets[i]);
+            assertEquals(3, lineCounter.count(new ByteArrayInputStream(bytes)), charsets[i].name());
+
+            Path path = Files.createTempFile("Encoded", ".java");
+            try {
+                Files.write(path, bytes);
+                assertEquals(3, lineCounter.count(path), charsets[i].name());
+                assertEquals(3, checkpointingLineCounter.count(path), charsets[i].name());
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should capture the package declaration while counting and aggregate lines per package")
+    void aggregatePackages() throws IOException {
+        PackageAggregator packageAggregator = new PackageAggregator();
+        JavaSourceLineCounter lineCounter = new JavaSourceLineCounter(packageAggregator);
+
+        lineCounter.count(new ByteArrayInputStream(("/* license */\n// package wrong;\npackage com.example.a;\n"
+                + "class A {\n}\n").getBytes(StandardCharsets.UTF_8)));
+        lineCounter.count(new ByteArrayInputStream("package /* x */ com.example.a ;\nclass B {}\n".getBytes(StandardCharsets.UTF_8)));
+        lineCounter.count(new ByteArrayInputStream("package com.example.ü;\nclass C {}\n".getBytes(StandardCharsets.UTF_8)));
+        lineCounter.count(new ByteArrayInputStream("package com.example.ü;\nclass D {}\n".getBytes(StandardCharsets.UTF_16)));
+        lineCounter.count(new ByteArrayInputStream("import java.util.List;\nclass E {}\n".getBytes(StandardCharsets.UTF_8)));
+        lineCounter.count("packages x;\n");
+
+        assertEquals(Arrays.asList(
+                new PackageStatistic("", 2, 3),
+                new PackageStatistic("com.example.a", 2, 5),
+                new PackageStatistic("com.example.ü", 2, 4)), packageAggregator.getStatistics());
+    }
+
+    @Test
+    @DisplayName("Should keep the package of a source counted from checkpoints")
+    void aggregatePackagesFromCheckpoints() throws IOException {
+        PackageAggregator packageAggregator = new PackageAggregator();
+        JavaSourceLineCounter lineCounter =
+                new JavaSourceLineCounter(4, new LexerCheckpointStore(Paths.get("unused.checkpoints")), // never closed
+                        new DirectBufferPool(1024, 1), packageAggregator);
+        Path path = Files.createTempFile("Package", ".java");
+        try {
+            Files.write(path, "package   com.example;\nclass A {\n}\n".getBytes(StandardCharsets.UTF_8));
+
+            lineCounter.count(path);
+            lineCounter.count(path); // unchanged, answered from the checkpoints
+
+            assertEquals(Collections.singletonList(new PackageStatistic("com.example", 2, 6)),
+                    packageAggregator.getStatistics());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import petrovskyi.replacer.CommentReplacer;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -78,6 +79,14 @@ class SourceCodeLineCounterTest {
 
         assertEquals(3, sourceCodeLines);
     }
-}
 
+    @Test
+    @DisplayName("Should decode UTF-16 sources before counting")
+    void countUtf16() {
+        String code = "\uFEFF// comment\nclass A {\n int a;\n}\n";
+
+        LineCounter lineCounter = new SourceCodeLineCounter(replacer);
 
+        assertEquals(3, lineCounter.count(new ByteArrayInputStream(code.getBytes(StandardCharsets.UTF_16LE))));
+    }
+}
@@ -0,0 +1,89 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should read back the statistics that were written")
+    void roundTrip() {
+        List<SourceFileReportStatistic> statistics = statistics();
+
+        BinaryReportReader reader = new BinaryReportReader(write(statistics));
+
+        assertEquals(statistics.size(), reader.getRowsNumber());
+        assertEquals(statistics, reader.readStatistics());
+    }
+
+    @Test
+    @DisplayName("Should decode a single column without the others")
+    void readColumns() {
+        BinaryReportReader reader = new BinaryReportReader(write(statistics()));
+
+        assertArrayEquals(new int[]{0, 1, 2, 2, 1, 1}, reader.readDepths());
+        assertArrayEquals(new int[]{700, 500, 200, 300, 0, 200}, reader.readLinesNumbers());
+        assertEquals("project/src/Ü.java", reader.readPaths().get(3));
+    }
+
+    @Test
+    @DisplayName("Should be much smaller than the text report for long similar paths")
+    void compact() {
+        List<SourceFileReportStatistic> statistics = new ArrayList<>();
+        statistics.add(SourceFileReportStatistic.of(ROOT, 0, true, 100_000));
+        for (int i = 0; i < 1000; i++) {
+            statistics.add(SourceFileReportStatistic.of(
+                    ROOT.resolve("src/main/java/com/example/module/File" + i + ".java"), 1, false, 100));
+        }
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        new NdjsonReporter(Channels.newChannel(ndjson)).write(statistics);
+
+        assertTrue(write(statistics).remaining() * 5 < ndjson.size());
+    }
+
+    @Test
+    @DisplayName("Should write an empty report and reject other formats")
+    void emptyAndInvalid() {
+        assertEquals(Collections.emptyList(), new BinaryReportReader(write(Collections.emptyList())).readStatistics());
+        assertThrows(IllegalArgumentException.class, () -> new BinaryReportReader(ByteBuffer.allocate(64)));
+    }
+
+    private ByteBuffer write(List<SourceFileReportStatistic> statistics) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryReporter(Channels.newChannel(output)).write(statistics);
+
+        return ByteBuffer.wrap(output.toByteArray());
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        SourceFileReportStatistic generated =
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("Ü.java"), 2, false, 300);
+        generated.setGenerated(true);
+
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 700),
+                SourceFileReportStatistic.of(ROOT.resolve("src"), 1, true, 500),
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("A.java"), 2, false, 200),
+                generated,
+                SourceFileReportStatistic.of(ROOT.resolve("empty"), 1, true, 0),
+                SourceFileReportStatistic.of(ROOT.resolve("B.java"), 1, false, 200));
+    }
+}
@@ -0,0 +1,50 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SnapshotDifference;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConsoleDiffReporterTest {
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    @DisplayName("Should print the indented differences followed by the summary")
+    void accept() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ConsoleDiffReporter diffReporter = new ConsoleDiffReporter("project", Channels.newChannel(output));
+
+        diffReporter.accept(difference(SnapshotDifference.Type.CHANGED, "", true, 0, 10, 12));
+        diffReporter.accept(difference(SnapshotDifference.Type.ADDED, "src", true, 1, 0, 5));
+        diffReporter.accept(difference(SnapshotDifference.Type.ADDED, "src/Ü.java", false, 2, 0, 5));
+        diffReporter.accept(difference(SnapshotDifference.Type.CHANGED, "A.java", false, 1, 7, 4));
+        diffReporter.accept(difference(SnapshotDifference.Type.REMOVED, "B.java", false, 1, 3, 0));
+        diffReporter.finish();
+
+        assertEquals("project : 10 -> 12 (+2)" + NEW_LINE
+                        + " src : +5 (added)" + NEW_LINE
+                        + "  Ü.java : +5 (added)" + NEW_LINE
+                        + " A.java : 7 -> 4 (-3)" + NEW_LINE
+                        + " B.java : -3 (removed)" + NEW_LINE
+                        + "Files added: 1, removed: 1, changed: 1, total lines delta: +2" + NEW_LINE,
+                new String(output.toByteArray(), Charset.defaultCharset()));
+    }
+
+    private SnapshotDifference difference(SnapshotDifference.Type type, String path, boolean isDirectory, int depth,
+                                          int previousLinesNumber, int currentLinesNumber) {
+        SnapshotDifference difference = new SnapshotDifference();
+        difference.setType(type);
+        difference.setPath(path);
+        difference.setDirectory(isDirectory);
+        difference.setDepth(depth);
+        difference.setPreviousLinesNumber(previousLinesNumber);
+        difference.setCurrentLinesNumber(currentLinesNumber);
+
+        return difference;
+    }
+}
@@ -0,0 +1,63 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConsoleReporterTest {
+    private static final Path ROOT = Paths.get("project");
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    @DisplayName("Should print the indented layout in the order of the statistics")
+    void write() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new ConsoleReporter(Channels.newChannel(output)).write(statistics());
+
+        assertEquals("project : 7" + NEW_LINE
+                        + " src : 5" + NEW_LINE
+                        + "  A.java : 2" + NEW_LINE
+                        + "  Gen.java : 3 (generated)" + NEW_LINE
+                        + " Ü.java : 2" + NEW_LINE,
+                new String(output.toByteArray(), Charset.defaultCharset()));
+    }
+
+    @Test
+    @DisplayName("Should print streamed entries in completion order")
+    void stream() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        StatisticsReplayer.replay(statistics(), new ConsoleReporter(Channels.newChannel(output)));
+
+        assertEquals("  A.java : 2" + NEW_LINE
+                        + "  Gen.java : 3 (generated)" + NEW_LINE
+                        + " src : 5" + NEW_LINE
+                        + " Ü.java : 2" + NEW_LINE
+                        + "project : 7" + NEW_LINE,
+                new String(output.toByteArray(), Charset.defaultCharset()));
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        SourceFileReportStatistic generated =
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("Gen.java"), 2, false, 3);
+        generated.setGenerated(true);
+
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 7),
+                SourceFileReportStatistic.of(ROOT.resolve("src"), 1, true, 5),
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("A.java"), 2, false, 2),
+                generated,
+                SourceFileReportStatistic.of(ROOT.resolve("Ü.java"), 1, false, 2));
+    }
+}
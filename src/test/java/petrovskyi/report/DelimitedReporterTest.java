@@ -0,0 +1,73 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DelimitedReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should write a header and quote only the fields that need it")
+    void writeCsv() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new DelimitedReporter(Channels.newChannel(output), DelimitedReporter.CSV_DELIMITER).write(statistics());
+
+        assertEquals("path,depth,directory,lines,generated\n"
+                        + "project,0,true,6,false\n"
+                        + "\"project/a,b\",1,true,5,false\n"
+                        + "\"project/a,b/Q\"\"uote.java\",2,false,5,true\n"
+                        + "project/Tab\tÜ.java,1,false,1,false\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should quote fields containing tabs in tab separated output")
+    void writeTsv() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new DelimitedReporter(Channels.newChannel(output), DelimitedReporter.TSV_DELIMITER).write(statistics());
+
+        assertEquals("path\tdepth\tdirectory\tlines\tgenerated\n"
+                        + "project\t0\ttrue\t6\tfalse\n"
+                        + "project/a,b\t1\ttrue\t5\tfalse\n"
+                        + "\"project/a,b/Q\"\"uote.java\"\t2\tfalse\t5\ttrue\n"
+                        + "\"project/Tab\tÜ.java\"\t1\tfalse\t1\tfalse\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write the header for an empty report")
+    void writeEmpty() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new DelimitedReporter(Channels.newChannel(output), DelimitedReporter.CSV_DELIMITER)
+                .write(Collections.emptyList());
+
+        assertEquals("path,depth,directory,lines,generated\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        SourceFileReportStatistic generated =
+                SourceFileReportStatistic.of(ROOT.resolve("a,b").resolve("Q\"uote.java"), 2, false, 5);
+        generated.setGenerated(true);
+
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 6),
+                SourceFileReportStatistic.of(ROOT.resolve("a,b"), 1, true, 5),
+                generated,
+                SourceFileReportStatistic.of(ROOT.resolve("Tab\tÜ.java"), 1, false, 1));
+    }
+}
@@ -0,0 +1,47 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistogramReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should print the distribution of every directory after its subtree")
+    void writeHistograms() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new HistogramReporter(Channels.newChannel(output)).write(Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 45),
+                SourceFileReportStatistic.of(ROOT.resolve("a"), 1, true, 40),
+                SourceFileReportStatistic.of(ROOT.resolve("a/A1.java"), 2, false, 10),
+                SourceFileReportStatistic.of(ROOT.resolve("a/A2.java"), 2, false, 30),
+                SourceFileReportStatistic.of(ROOT.resolve("D.java"), 1, false, 5)));
+
+        assertEquals(" a : files 2, p50 10, p90 30, p99 30, max 30\n"
+                        + "project : files 3, p50 10, p90 30, p99 30, max 30\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should print a line for a root that is a single file")
+    void writeSingleFile() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new HistogramReporter(Channels.newChannel(output))
+                .write(Collections.singletonList(SourceFileReportStatistic.of(ROOT.resolve("A.java"), 0, false, 7)));
+
+        assertEquals("A.java : files 1, p50 7, p90 7, p99 7, max 7\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
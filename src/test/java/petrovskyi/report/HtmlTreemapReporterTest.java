@@ -0,0 +1,61 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlTreemapReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should embed the tree into a page without external resources")
+    void write() {
+        String html = write(0);
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertEquals("[\"project\",110,[[\"src\",100,[[\"A.java\",90],[\"B\\u003cscript>.java\",10],"
+                + "[\"C.java\",0]]],[\"D.java\",10]]]", data(html));
+        assertFalse(html.contains("http://") || html.contains("https://") || html.contains(" src="));
+    }
+
+    @Test
+    @DisplayName("Should fold entries below the threshold into one entry of their parent")
+    void aggregate() {
+        assertEquals("[\"project\",110,[[\"src\",100,[[\"A.java\",90],[\"(2 smaller)\",10]]],[\"(1 smaller)\",10]]]",
+                data(write(50)));
+    }
+
+    private String write(int minLinesNumber) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new HtmlTreemapReporter(Channels.newChannel(output), minLinesNumber).write(statistics());
+
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String data(String html) {
+        int start = html.indexOf("id=\"data\">") + "id=\"data\">".length();
+        return html.substring(start, html.indexOf("</script>", start)).trim();
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 110),
+                SourceFileReportStatistic.of(ROOT.resolve("src"), 1, true, 100),
+                SourceFileReportStatistic.of(ROOT.resolve("src/A.java"), 2, false, 90),
+                SourceFileReportStatistic.of(ROOT.resolve("src/B<script>.java"), 2, false, 10),
+                SourceFileReportStatistic.of(ROOT.resolve("src/C.java"), 2, false, 0),
+                SourceFileReportStatistic.of(ROOT.resolve("D.java"), 1, false, 10));
+    }
+}
@@ -0,0 +1,67 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should write the tree as nested JSON with escaped names")
+    void writeJson() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new JsonReporter(Channels.newChannel(output)).write(statistics());
+
+        assertEquals("{\"name\":\"project\",\"path\":\"project\",\"directory\":true,\"children\":["
+                        + "{\"name\":\"src\",\"directory\":true,\"children\":["
+                        + "{\"name\":\"A.java\",\"directory\":false,\"lines\":2},"
+                        + "{\"name\":\"Q\\\"uote\\u0001.java\",\"directory\":false,\"lines\":3,\"generated\":true}"
+                        + "],\"lines\":5},"
+                        + "{\"name\":\"empty\",\"directory\":true,\"children\":[],\"lines\":0},"
+                        + "{\"name\":\"Ünïcödé.java\",\"directory\":false,\"lines\":1}"
+                        + "],\"lines\":6}\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write one JSON line per entry with every directory after its subtree")
+    void writeNdjson() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new NdjsonReporter(Channels.newChannel(output)).write(statistics());
+
+        assertEquals("{\"path\":\"project/src/A.java\",\"depth\":2,\"directory\":false,\"lines\":2}\n"
+                        + "{\"path\":\"project/src/Q\\\"uote\\u0001.java\",\"depth\":2,\"directory\":false,\"lines\":3,\"generated\":true}\n"
+                        + "{\"path\":\"project/src\",\"depth\":1,\"directory\":true,\"lines\":5}\n"
+                        + "{\"path\":\"project/empty\",\"depth\":1,\"directory\":true,\"lines\":0}\n"
+                        + "{\"path\":\"project/Ünïcödé.java\",\"depth\":1,\"directory\":false,\"lines\":1}\n"
+                        + "{\"path\":\"project\",\"depth\":0,\"directory\":true,\"lines\":6}\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        SourceFileReportStatistic generated =
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("Q\"uote\u0001.java"), 2, false, 3);
+        generated.setGenerated(true);
+
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 6),
+                SourceFileReportStatistic.of(ROOT.resolve("src"), 1, true, 5),
+                SourceFileReportStatistic.of(ROOT.resolve("src").resolve("A.java"), 2, false, 2),
+                generated,
+                SourceFileReportStatistic.of(ROOT.resolve("empty"), 1, true, 0),
+                SourceFileReportStatistic.of(ROOT.resolve("Ünïcödé.java"), 1, false, 1));
+    }
+}
@@ -0,0 +1,68 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.RunMetrics;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenMetricsReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should write module gauges down to the depth and the run metrics, replacing the file at once")
+    void write() throws IOException {
+        Path directory = Files.createTempDirectory("metrics");
+        Path outputPath = directory.resolve("loc.prom");
+        try {
+            Files.write(outputPath, "stale".getBytes(StandardCharsets.UTF_8));
+
+            new OpenMetricsReporter(outputPath, 1, () -> new RunMetrics(1500, 4096, 3, 1)).write(statistics());
+
+            List<String> lines = Files.readAllLines(outputPath, StandardCharsets.UTF_8);
+            assertEquals(Arrays.asList(
+                    "loc_lines{root=\"project\",module=\"a\\\"b\",depth=\"1\"} 5",
+                    "loc_lines{root=\"project\",module=\".\",depth=\"0\"} 6",
+                    "loc_files{root=\"project\",module=\"a\\\"b\",depth=\"1\"} 2",
+                    "loc_files{root=\"project\",module=\".\",depth=\"0\"} 3",
+                    "loc_run_duration_seconds 1.500",
+                    "loc_run_files 3",
+                    "loc_run_read_bytes 4096",
+                    "loc_run_cache_hit_ratio 0.75"), samples(lines));
+            assertTrue(lines.contains("# TYPE loc_lines gauge"));
+            assertEquals("# EOF", lines.get(lines.size() - 1));
+            assertFalse(Files.exists(directory.resolve("loc.prom.tmp")));
+        } finally {
+            Files.deleteIfExists(outputPath);
+            Files.delete(directory);
+        }
+    }
+
+    private List<String> samples(List<String> lines) {
+        return lines.stream()
+                .filter(line -> !line.startsWith("#") && !line.startsWith("loc_run_timestamp_seconds"))
+                .collect(Collectors.toList());
+    }
+
+    private List<SourceFileReportStatistic> statistics() {
+        return Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 6),
+                SourceFileReportStatistic.of(ROOT.resolve("a\"b"), 1, true, 5),
+                SourceFileReportStatistic.of(ROOT.resolve("a\"b").resolve("c"), 2, true, 3),
+                SourceFileReportStatistic.of(ROOT.resolve("a\"b").resolve("c").resolve("C.java"), 3, false, 3),
+                SourceFileReportStatistic.of(ROOT.resolve("a\"b").resolve("B.java"), 2, false, 2),
+                SourceFileReportStatistic.of(ROOT.resolve("D.java"), 1, false, 1));
+    }
+}
@@ -0,0 +1,60 @@
+package petrovskyi.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TopReporterTest {
+    private static final Path ROOT = Paths.get("project");
+
+    @Test
+    @DisplayName("Should keep only the largest files and directories, largest first")
+    void getTop() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TopReporter topReporter = new TopReporter(Channels.newChannel(output), 2);
+
+        StatisticsReplayer.replay(Arrays.asList(
+                SourceFileReportStatistic.of(ROOT, 0, true, 60),
+                SourceFileReportStatistic.of(ROOT.resolve("a"), 1, true, 35),
+                SourceFileReportStatistic.of(ROOT.resolve("a/A1.java"), 2, false, 5),
+                SourceFileReportStatistic.of(ROOT.resolve("a/A2.java"), 2, false, 30),
+                SourceFileReportStatistic.of(ROOT.resolve("b"), 1, true, 15),
+                SourceFileReportStatistic.of(ROOT.resolve("b/c"), 2, true, 15),
+                SourceFileReportStatistic.of(ROOT.resolve("b/c/C.java"), 3, false, 15),
+                SourceFileReportStatistic.of(ROOT.resolve("D.java"), 1, false, 10)), topReporter);
+
+        assertEquals(Arrays.asList("project/a/A2.java", "project/b/c/C.java"), paths(topReporter.getFiles()));
+        assertEquals(Arrays.asList("project/a", "project/b"), paths(topReporter.getDirectories()));
+        assertEquals("Top 2 files:\n"
+                        + " a/A2.java : 30\n"
+                        + " b/c/C.java : 15\n"
+                        + "Top 2 directories:\n"
+                        + " a : 35\n"
+                        + " b : 15\n",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject a limit below one")
+    void invalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new TopReporter(Channels.newChannel(new ByteArrayOutputStream()), 0));
+    }
+
+    private List<String> paths(List<SourceFileReportStatistic> statistics) {
+        return statistics.stream()
+                .map(statistic -> statistic.getPath().toString())
+                .collect(Collectors.toList());
+    }
+}
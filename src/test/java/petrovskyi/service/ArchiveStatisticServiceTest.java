@@ -0,0 +1,91 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveStatisticServiceTest {
+    private Path archivePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archivePath = Files.createTempFile("library-sources", ".jar");
+        try (OutputStream outputStream = Files.newOutputStream(archivePath);
+             ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("META-INF/"));
+            put(zipOutputStream, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n");
+            put(zipOutputStream, "com/example/A.java", "// A\nclass A {\n}\n");
+            put(zipOutputStream, "com/example/util/B.java", "class B {\n /* b */ int b;\n}\n");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(archivePath);
+    }
+
+    @Test
+    @DisplayName("Should count java entries of the archive and report the archive as a directory")
+    void getStatistics() throws IOException {
+        ArchiveStatisticService archiveStatisticService = new ArchiveStatisticService(".java", new JavaSourceLineCounter());
+
+        List<SourceFileReportStatistic> statistics = archiveStatisticService.getStatistics(archivePath);
+
+        SourceFileReportStatistic archiveStatistic = statistics.get(0);
+        assertEquals(archivePath, archiveStatistic.getPath());
+        assertTrue(archiveStatistic.isDirectory());
+        assertEquals(0, archiveStatistic.getDepth());
+        assertEquals(5, archiveStatistic.getLinesNumber());
+
+        assertEquals(7, statistics.size()); // archive + META-INF + com + example + A.java + util + B.java
+        SourceFileReportStatistic fileStatistic = find(statistics, archivePath.resolve("com/example/util/B.java"));
+        assertFalse(fileStatistic.isDirectory());
+        assertEquals(4, fileStatistic.getDepth());
+        assertEquals(3, fileStatistic.getLinesNumber());
+        assertEquals(5, find(statistics, archivePath.resolve("com")).getLinesNumber());
+        assertEquals(0, find(statistics, archivePath.resolve("META-INF")).getLinesNumber());
+    }
+
+    @Test
+    @DisplayName("Should count a streamed archive like an archive file")
+    void getStatisticsFromStream() throws IOException {
+        ArchiveStatisticService archiveStatisticService = new ArchiveStatisticService(".java", new JavaSourceLineCounter());
+
+        List<SourceFileReportStatistic> statistics;
+        try (InputStream inputStream = Files.newInputStream(archivePath)) {
+            statistics = archiveStatisticService.getStatistics(inputStream, archivePath);
+        }
+
+        assertEquals(archiveStatisticService.getStatistics(archivePath), statistics);
+    }
+
+    private SourceFileReportStatistic find(List<SourceFileReportStatistic> statistics, Path path) {
+        return statistics.stream()
+                .filter(statistic -> statistic.getPath().equals(path))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistic for " + path));
+    }
+
+    private void put(ZipOutputStream zipOutputStream, String name, String content) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+    }
+}
@@ -2,22 +2,31 @@ package petrovskyi.service;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import petrovskyi.checker.GeneratedSourceChecker;
+import petrovskyi.checker.SourceFileGuard;
 import petrovskyi.counter.LineCounter;
 import petrovskyi.counter.SourceCodeLineCounter;
 import petrovskyi.entity.FileDirectoryHierarchy;
+import petrovskyi.entity.GeneratedSourcePolicy;
+import petrovskyi.entity.OversizedSourcePolicy;
 import petrovskyi.entity.SourceFileReportStatistic;
 import petrovskyi.replacer.CommentReplacer;
 import petrovskyi.replacer.Replacer;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FileStatisticServiceTest {
     private final Replacer REPLACER = new CommentReplacer();
@@ -103,6 +112,40 @@ class FileStatisticServiceTest {
         assertEquals(expectedStatistics, statistics);
     }
 
+    @Test
+    @DisplayName("Should leave out binaries and excluded generated sources and tag the kept generated ones")
+    void getStatisticsWithGuardAndGeneratedPolicy() throws IOException {
+        Path root = Files.createTempDirectory("guarded");
+        try {
+            Path source = Files.write(root.resolve("A.java"), "class A {\n}\n".getBytes(StandardCharsets.UTF_8));
+            Path generated = Files.write(root.resolve("G.java"),
+                    "@Generated(\"apt\")\nclass G {\n}\n".getBytes(StandardCharsets.UTF_8));
+            Path binary = Files.write(root.resolve("B.java"), new byte[]{(byte) 0xca, (byte) 0xfe, 0, 0, 0, 52});
+
+            Map<Path, List<Path>> fileDirectoryPathToFiles = new TreeMap<>();
+            fileDirectoryPathToFiles.put(root, Arrays.asList(source, generated, binary));
+            FileDirectoryHierarchy fileDirectoryHierarchy = new FileDirectoryHierarchy();
+            fileDirectoryHierarchy.setFileDirectoryPathToFiles(fileDirectoryPathToFiles);
+            SourceFileGuard sourceFileGuard = new SourceFileGuard(Long.MAX_VALUE, OversizedSourcePolicy.FAIL);
+
+            List<SourceFileReportStatistic> tagged = new FileStatisticService(LINE_COUNTER, new GeneratedSourceChecker(),
+                    GeneratedSourcePolicy.TAG, sourceFileGuard).getStatistics(root, fileDirectoryHierarchy);
+            assertEquals(3, tagged.size());
+            assertEquals(5, tagged.get(0).getLinesNumber());
+            assertTrue(tagged.stream().anyMatch(statistic -> statistic.getPath().equals(generated) && statistic.isGenerated()));
+
+            List<SourceFileReportStatistic> excluded = new FileStatisticService(LINE_COUNTER, new GeneratedSourceChecker(),
+                    GeneratedSourcePolicy.EXCLUDE, sourceFileGuard).getStatistics(root, fileDirectoryHierarchy);
+            assertEquals(2, excluded.size());
+            assertEquals(2, excluded.get(0).getLinesNumber());
+        } finally {
+            for (Path path : Files.list(root).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+            Files.delete(root);
+        }
+    }
+
     private List<SourceFileReportStatistic> getStatisticsForDir11(boolean withRoot) {
         List<SourceFileReportStatistic> expectedStatistics = new ArrayList<>();
 
@@ -0,0 +1,169 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.checker.GeneratedSourceChecker;
+import petrovskyi.counter.LineCounter;
+import petrovskyi.counter.SourceCodeLineCounter;
+import petrovskyi.entity.GeneratedSourcePolicy;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.replacer.CommentReplacer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalStatisticServiceTest {
+    private final LineCounter SOURCE_CODE_LINE_COUNTER = new SourceCodeLineCounter(new CommentReplacer());
+    private final AtomicInteger countedFiles = new AtomicInteger();
+    private final LineCounter LINE_COUNTER = inputStream -> {
+        countedFiles.incrementAndGet();
+        return SOURCE_CODE_LINE_COUNTER.count(inputStream);
+    };
+
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("incremental");
+        write(root.resolve("A.java"), "class A {\n}\n");
+        Files.createDirectories(root.resolve("sub").resolve("deep"));
+        write(root.resolve("sub").resolve("B.java"), "// comment\nclass B {\n int b;\n}\n");
+        write(root.resolve("sub").resolve("deep").resolve("C.java"), "class C {}\n");
+        write(root.resolve("sub").resolve("notes.txt"), "not java\n");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the same statistics as the full recount")
+    void getStatisticsLikeFullRecount() throws IOException {
+        IncrementalStatisticService incrementalStatisticService = new IncrementalStatisticService(".java", new FileStatisticService(LINE_COUNTER));
+        List<SourceFileReportStatistic> statistics = incrementalStatisticService.getStatistics(root, MappedSnapshot.empty(), new Snapshot());
+
+        FileDirectoryService fileDirectoryService = new FileDirectoryService(".java");
+        FileStatisticService fileStatisticService = new FileStatisticService(SOURCE_CODE_LINE_COUNTER);
+        List<SourceFileReportStatistic> expectedStatistics =
+                fileStatisticService.getStatistics(root, fileDirectoryService.getFileDirectoryHierarchy(root));
+
+        assertEquals(expectedStatistics, statistics);
+        assertEquals(6, statistics.get(0).getLinesNumber());
+        assertEquals(3, countedFiles.get());
+    }
+
+    @Test
+    @DisplayName("Should not read any file when nothing changed since the previous snapshot")
+    void getStatisticsWithoutChanges() throws IOException {
+        IncrementalStatisticService incrementalStatisticService = new IncrementalStatisticService(".java", new FileStatisticService(LINE_COUNTER));
+        Snapshot first = new Snapshot();
+        List<SourceFileReportStatistic> firstStatistics = incrementalStatisticService.getStatistics(root, MappedSnapshot.empty(), first);
+        countedFiles.set(0);
+
+        Snapshot second = new Snapshot();
+        List<SourceFileReportStatistic> secondStatistics = incrementalStatisticService.getStatistics(root, map(first), second);
+
+        assertEquals(0, countedFiles.get());
+        assertEquals(sortedByPath(firstStatistics), sortedByPath(secondStatistics));
+        assertEquals(first.getPathToEntry(), second.getPathToEntry());
+    }
+
+    @Test
+    @DisplayName("Should recount only the changed file and update the directory rollups")
+    void getStatisticsWithChangedFile() throws IOException {
+        IncrementalStatisticService incrementalStatisticService = new IncrementalStatisticService(".java", new FileStatisticService(LINE_COUNTER));
+        Snapshot first = new Snapshot();
+        incrementalStatisticService.getStatistics(root, MappedSnapshot.empty(), first);
+        countedFiles.set(0);
+
+        Path changedFile = root.resolve("sub").resolve("deep").resolve("C.java");
+        write(changedFile, "class C {\n int c;\n}\n");
+        Files.setLastModifiedTime(changedFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        List<SourceFileReportStatistic> statistics = incrementalStatisticService.getStatistics(root, map(first), new Snapshot());
+
+        assertEquals(1, countedFiles.get());
+        assertEquals(8, statistics.get(0).getLinesNumber());
+    }
+
+    @Test
+    @DisplayName("Should recount a file rewritten in place in a directory whose mtime did not change")
+    void getStatisticsWithUnchangedDirectory() throws IOException {
+        IncrementalStatisticService incrementalStatisticService = new IncrementalStatisticService(".java", new FileStatisticService(LINE_COUNTER));
+        Snapshot first = new Snapshot();
+        incrementalStatisticService.getStatistics(root, MappedSnapshot.empty(), first);
+        countedFiles.set(0);
+
+        Path sub = root.resolve("sub");
+        FileTime subLastModified = Files.getLastModifiedTime(sub);
+        Path rewrittenFile = sub.resolve("B.java");
+        write(rewrittenFile, "class B {\n int b;\n int c;\n}\n");
+        Files.setLastModifiedTime(rewrittenFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Files.setLastModifiedTime(sub, subLastModified);
+
+        List<SourceFileReportStatistic> statistics = incrementalStatisticService.getStatistics(root, map(first), new Snapshot());
+
+        assertEquals(subLastModified, Files.getLastModifiedTime(sub));
+        assertEquals(1, countedFiles.get());
+        assertEquals(7, statistics.get(0).getLinesNumber());
+    }
+
+    @Test
+    @DisplayName("Should skip excluded generated files and decide on them again once the policy changes")
+    void getStatisticsWithGeneratedPolicy() throws IOException {
+        Path generatedFile = root.resolve("sub").resolve("G.java");
+        write(generatedFile, "@Generated(\"apt\")\nclass G {\n}\n");
+        IncrementalStatisticService excluding = new IncrementalStatisticService(".java", new FileStatisticService(
+                LINE_COUNTER, new GeneratedSourceChecker(), GeneratedSourcePolicy.EXCLUDE, null));
+        Snapshot first = new Snapshot();
+        List<SourceFileReportStatistic> excluded = excluding.getStatistics(root, MappedSnapshot.empty(), first);
+
+        assertEquals(6, excluded.get(0).getLinesNumber());
+        assertFalse(first.getPathToEntry().containsKey("sub/G.java"));
+
+        Snapshot second = new Snapshot();
+        List<SourceFileReportStatistic> excludedAgain = excluding.getStatistics(root, map(first), second);
+
+        assertEquals(6, excludedAgain.get(0).getLinesNumber());
+        assertEquals(excluded.size(), excludedAgain.size());
+
+        List<SourceFileReportStatistic> counted = new IncrementalStatisticService(".java",
+                new FileStatisticService(LINE_COUNTER)).getStatistics(root, map(second), new Snapshot());
+
+        assertEquals(9, counted.get(0).getLinesNumber());
+        assertTrue(counted.stream().anyMatch(statistic -> statistic.getPath().equals(generatedFile)));
+    }
+
+    private List<SourceFileReportStatistic> sortedByPath(List<SourceFileReportStatistic> statistics) {
+        return statistics.stream()
+                .sorted(Comparator.comparing(SourceFileReportStatistic::getPath))
+                .collect(Collectors.toList());
+    }
+
+    private MappedSnapshot map(Snapshot snapshot) {
+        return new MappedSnapshot(new SnapshotService().encode(snapshot));
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
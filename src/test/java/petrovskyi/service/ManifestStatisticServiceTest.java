@@ -0,0 +1,126 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.checker.GeneratedSourceChecker;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.entity.GeneratedSourcePolicy;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestStatisticServiceTest {
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("manifest").toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("src").resolve("main"));
+        write(root.resolve("src").resolve("main").resolve("A.java"), "class A {\n}\n");
+        write(root.resolve("src").resolve("B.java"), "// B\nclass B {\n int b;\n}\n");
+        write(root.resolve("src").resolve("Unlisted.java"), "class Unlisted {\n}\n");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should count listed files only and build the hierarchy from their prefixes")
+    void getStatisticsFromNewlineManifest() throws IOException {
+        ManifestStatisticService manifestStatisticService =
+                new ManifestStatisticService(".java", new FileStatisticService(new JavaSourceLineCounter()));
+        String manifest = "src/main/A.java\r\n\n" + root.resolve("src/B.java") + "\nnotes.txt";
+
+        List<SourceFileReportStatistic> statistics =
+                manifestStatisticService.getStatistics(stream(manifest), root, ManifestStatisticService.NEWLINE_DELIMITER);
+
+        assertEquals(5, statistics.size()); // root + src + main + A.java + B.java
+        assertEquals(root, statistics.get(0).getPath());
+        assertEquals(5, statistics.get(0).getLinesNumber());
+        assertEquals(2, find(statistics, root.resolve("src/main")).getLinesNumber());
+        assertEquals(3, find(statistics, root.resolve("src/B.java")).getLinesNumber());
+        assertEquals(2, find(statistics, root.resolve("src/B.java")).getDepth());
+    }
+
+    @Test
+    @DisplayName("Should split a NUL delimited manifest longer than the read buffer")
+    void getStatisticsFromNulManifest() throws IOException {
+        ManifestStatisticService manifestStatisticService =
+                new ManifestStatisticService(".java", new FileStatisticService(new JavaSourceLineCounter()));
+        StringBuilder manifest = new StringBuilder();
+        while (manifest.length() < 200_000) {
+            manifest.append("./src/main/A.java\0src/../src/B.java\0");
+        }
+
+        List<SourceFileReportStatistic> statistics =
+                manifestStatisticService.getStatistics(stream(manifest.toString()), root, ManifestStatisticService.NUL_DELIMITER);
+
+        assertEquals(5, statistics.size());
+        assertEquals(5, statistics.get(0).getLinesNumber());
+    }
+
+    @Test
+    @DisplayName("Should skip manifest paths outside of the root and missing files")
+    void getStatisticsOutsideOfRoot() throws IOException {
+        ManifestStatisticService manifestStatisticService =
+                new ManifestStatisticService(".java", new FileStatisticService(new JavaSourceLineCounter()));
+
+        List<SourceFileReportStatistic> statistics = manifestStatisticService.getStatistics(
+                stream("../Other.java\nsrc/Deleted.java\nsrc/B.java\n"), root, ManifestStatisticService.NEWLINE_DELIMITER);
+
+        assertEquals(3, statistics.size()); // root + src + B.java
+        assertEquals(3, statistics.get(0).getLinesNumber());
+        assertEquals(2, manifestStatisticService.getSkippedPathsNumber());
+    }
+
+    @Test
+    @DisplayName("Should apply the generated sources policy to listed files")
+    void getStatisticsWithGeneratedPolicy() throws IOException {
+        write(root.resolve("src").resolve("G.java"), "@Generated(\"apt\")\nclass G {\n}\n");
+        String manifest = "src/B.java\nsrc/G.java\n";
+
+        List<SourceFileReportStatistic> tagged = new ManifestStatisticService(".java", new FileStatisticService(
+                new JavaSourceLineCounter(), new GeneratedSourceChecker(), GeneratedSourcePolicy.TAG, null))
+                .getStatistics(stream(manifest), root, ManifestStatisticService.NEWLINE_DELIMITER);
+        assertTrue(find(tagged, root.resolve("src/G.java")).isGenerated());
+        assertEquals(6, tagged.get(0).getLinesNumber());
+
+        List<SourceFileReportStatistic> excluded = new ManifestStatisticService(".java", new FileStatisticService(
+                new JavaSourceLineCounter(), new GeneratedSourceChecker(), GeneratedSourcePolicy.EXCLUDE, null))
+                .getStatistics(stream(manifest), root, ManifestStatisticService.NEWLINE_DELIMITER);
+        assertEquals(3, excluded.size());
+        assertEquals(3, excluded.get(0).getLinesNumber());
+    }
+
+    private InputStream stream(String manifest) {
+        return new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SourceFileReportStatistic find(List<SourceFileReportStatistic> statistics, Path path) {
+        return statistics.stream()
+                .filter(statistic -> statistic.getPath().equals(path))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistic for " + path));
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SnapshotDifference;
+import petrovskyi.entity.SnapshotEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SnapshotDiffServiceTest {
+    private final SnapshotService SNAPSHOT_SERVICE = new SnapshotService();
+
+    @Test
+    @DisplayName("Should report added, removed and changed entries in path order")
+    void diff() {
+        Snapshot previous = new Snapshot();
+        previous.setRoot("/release-a");
+        put(previous, "", true, 30);
+        put(previous, "core", true, 20);
+        put(previous, "core/A.java", false, 10);
+        put(previous, "core/B.java", false, 10);
+        put(previous, "core.old", true, 10);
+        put(previous, "core.old/Old.java", false, 10);
+
+        Snapshot current = new Snapshot();
+        current.setRoot("/release-b");
+        put(current, "", true, 35);
+        put(current, "core", true, 35);
+        put(current, "core/A.java", false, 10);
+        put(current, "core/B.java", false, 15);
+        put(current, "core/api", true, 10);
+        put(current, "core/api/C.java", false, 10);
+
+        List<SnapshotDifference> differences = new ArrayList<>();
+        new SnapshotDiffService().diff(map(previous), map(current), differences::add);
+
+        assertEquals(7, differences.size());
+        assertDifference(differences.get(0), SnapshotDifference.Type.CHANGED, "", 0, 5);
+        assertDifference(differences.get(1), SnapshotDifference.Type.CHANGED, "core", 1, 15);
+        assertDifference(differences.get(2), SnapshotDifference.Type.CHANGED, "core/B.java", 2, 5);
+        assertDifference(differences.get(3), SnapshotDifference.Type.ADDED, "core/api", 2, 10);
+        assertDifference(differences.get(4), SnapshotDifference.Type.ADDED, "core/api/C.java", 3, 10);
+        assertDifference(differences.get(5), SnapshotDifference.Type.REMOVED, "core.old", 1, -10);
+        assertDifference(differences.get(6), SnapshotDifference.Type.REMOVED, "core.old/Old.java", 2, -10);
+    }
+
+    @Test
+    @DisplayName("Should report nothing for equal snapshots")
+    void diffEqual() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setRoot("/release");
+        put(snapshot, "", true, 10);
+        put(snapshot, "A.java", false, 10);
+
+        List<SnapshotDifference> differences = new ArrayList<>();
+        new SnapshotDiffService().diff(map(snapshot), map(snapshot), differences::add);
+
+        assertEquals(0, differences.size());
+    }
+
+    private void assertDifference(SnapshotDifference difference, SnapshotDifference.Type type,
+                                  String path, int depth, int delta) {
+        assertEquals(type, difference.getType());
+        assertEquals(path, difference.getPath());
+        assertEquals(depth, difference.getDepth());
+        assertEquals(delta, difference.getDelta());
+    }
+
+    private MappedSnapshot map(Snapshot snapshot) {
+        return new MappedSnapshot(SNAPSHOT_SERVICE.encode(snapshot));
+    }
+
+    private void put(Snapshot snapshot, String path, boolean isDirectory, int linesNumber) {
+        SnapshotEntry entry = new SnapshotEntry();
+        entry.setPath(path);
+        entry.setDirectory(isDirectory);
+        entry.setLinesNumber(linesNumber);
+        snapshot.getPathToEntry().put(path, entry);
+    }
+}
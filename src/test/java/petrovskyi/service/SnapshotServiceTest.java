@@ -0,0 +1,111 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.entity.MappedSnapshot;
+import petrovskyi.entity.Snapshot;
+import petrovskyi.entity.SnapshotEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotServiceTest {
+
+    @Test
+    @DisplayName("Should map the same snapshot that was saved")
+    void saveAndLoad() throws IOException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setRoot("/project");
+        snapshot.getPathToEntry().put("", entry("", true, 17, 3, 100, 42));
+        snapshot.getPathToEntry().put("a.b", entry("a.b", true, 0, 0, 300, 7));
+        snapshot.getPathToEntry().put("a", entry("a", true, 7, 1, 200, 43));
+        snapshot.getPathToEntry().put("a/Привіт.java", entry("a/Привіт.java", false, 7, 90, 250, 0));
+        snapshot.getPathToEntry().put("A.java", entry("A.java", false, 10, 120, 200, 0));
+
+        Path snapshotPath = Files.createTempFile("snapshot", ".bin");
+        try {
+            SnapshotService snapshotService = new SnapshotService();
+            snapshotService.save(snapshot, snapshotPath);
+            MappedSnapshot loaded = snapshotService.load(snapshotPath);
+
+            assertEquals("/project", loaded.getRoot());
+            assertEquals(5, loaded.getEntriesNumber());
+            assertEquals(2, loaded.getFilesNumber());
+            assertEquals(3, loaded.getDirectoriesNumber());
+            assertEquals(17, loaded.getTotalLinesNumber());
+
+            String[] expectedOrder = {"", "A.java", "a", "a/Привіт.java", "a.b"};
+            for (int i = 0; i < expectedOrder.length; i++) {
+                assertEquals(expectedOrder[i], loaded.getPath(i));
+                assertEquals(i, loaded.indexOf(expectedOrder[i]));
+            }
+
+            int index = loaded.indexOf("a/Привіт.java");
+            assertFalse(loaded.isDirectory(index));
+            assertEquals(2, loaded.getDepth(index));
+            assertEquals(7, loaded.getLinesNumber(index));
+            assertEquals(90, loaded.getSize(index));
+            assertEquals(250, loaded.getLastModified(index));
+            assertTrue(loaded.isDirectory(loaded.indexOf("a")));
+            assertEquals(43, loaded.getDigest(loaded.indexOf("a")));
+            assertEquals(-1, loaded.indexOf("a/B.java"));
+        } finally {
+            Files.deleteIfExists(snapshotPath);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return an empty snapshot for a missing file")
+    void loadMissing() throws IOException {
+        Path snapshotPath = Files.createTempFile("snapshot", ".bin");
+        Files.delete(snapshotPath);
+
+        MappedSnapshot loaded = new SnapshotService().load(snapshotPath);
+
+        assertEquals("", loaded.getRoot());
+        assertEquals(0, loaded.getEntriesNumber());
+        assertEquals(-1, loaded.indexOf(""));
+    }
+
+    @Test
+    @DisplayName("Should reject a snapshot cut short after its header")
+    void loadTruncated() throws IOException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setRoot("/project");
+        snapshot.getPathToEntry().put("", entry("", true, 10, 1, 100, 42));
+        snapshot.getPathToEntry().put("A.java", entry("A.java", false, 10, 120, 200, 0));
+
+        Path snapshotPath = Files.createTempFile("snapshot", ".bin");
+        try {
+            SnapshotService snapshotService = new SnapshotService();
+            snapshotService.save(snapshot, snapshotPath);
+            byte[] bytes = Files.readAllBytes(snapshotPath);
+            Files.write(snapshotPath, Arrays.copyOf(bytes, MappedSnapshot.HEADER_SIZE + MappedSnapshot.RECORD_SIZE));
+
+            IllegalArgumentException exception =
+                    assertThrows(IllegalArgumentException.class, () -> snapshotService.load(snapshotPath));
+            assertTrue(exception.getMessage().startsWith("Corrupt snapshot"));
+        } finally {
+            Files.deleteIfExists(snapshotPath);
+        }
+    }
+
+    private SnapshotEntry entry(String path, boolean isDirectory, int linesNumber, long size, long lastModified, long digest) {
+        SnapshotEntry entry = new SnapshotEntry();
+        entry.setPath(path);
+        entry.setDirectory(isDirectory);
+        entry.setLinesNumber(linesNumber);
+        entry.setSize(size);
+        entry.setLastModified(lastModified);
+        entry.setDigest(digest);
+
+        return entry;
+    }
+}
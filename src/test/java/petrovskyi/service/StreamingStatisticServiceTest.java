@@ -0,0 +1,158 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.checker.GeneratedSourceChecker;
+import petrovskyi.checker.SourceFileGuard;
+import petrovskyi.counter.AsyncLineCounter;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.counter.LineCounter;
+import petrovskyi.entity.GeneratedSourcePolicy;
+import petrovskyi.entity.OversizedSourcePolicy;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.report.StatisticsReplayer;
+import petrovskyi.report.StreamingReporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingStatisticServiceTest {
+    private final LineCounter LINE_COUNTER = new JavaSourceLineCounter();
+
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("streaming");
+        Files.createDirectories(root.resolve("sub").resolve("deep"));
+        Files.createDirectories(root.resolve("empty"));
+        write(root.resolve("A.java"), "class A {\n}\n");
+        write(root.resolve("sub").resolve("B.java"), "// comment\nclass B {\n int b;\n}\n");
+        write(root.resolve("sub").resolve("deep").resolve("C.java"), "class C {}\n");
+        write(root.resolve("sub").resolve("notes.txt"), "not java\n");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream the same statistics as the full count, every directory after its subtree")
+    void getStatistics() throws IOException {
+        RecordingReporter reporter = new RecordingReporter();
+
+        int totalLinesNumber = new StreamingStatisticService(".java", new FileStatisticService(LINE_COUNTER))
+                .getStatistics(root, reporter);
+
+        List<SourceFileReportStatistic> expected = new FileStatisticService(LINE_COUNTER)
+                .getStatistics(root, new FileDirectoryService(".java").getFileDirectoryHierarchy(root));
+        assertEquals(expected.get(0).getLinesNumber(), totalLinesNumber);
+        assertEquals(toMap(expected), toMap(reporter.completed));
+        assertEquals(root, reporter.completed.get(reporter.completed.size() - 1).getPath());
+        assertEquals(1, reporter.finished);
+        assertEquals(0, reporter.openDirectories);
+        assertTrue(reporter.completedBeforeParent);
+    }
+
+    @Test
+    @DisplayName("Should apply the guard and the generated sources policy and count through the async reader")
+    void getStatisticsWithPolicies() throws IOException {
+        write(root.resolve("sub").resolve("G.java"), "@Generated(\"apt\")\nclass G {\n}\n");
+        Files.write(root.resolve("sub").resolve("deep").resolve("Binary.java"), new byte[]{(byte) 0xca, (byte) 0xfe, 0, 0});
+        SourceFileGuard sourceFileGuard = new SourceFileGuard(Long.MAX_VALUE, OversizedSourcePolicy.FAIL);
+        AsyncLineCounter asyncLineCounter = new AsyncLineCounter(4, LINE_COUNTER);
+        RecordingReporter reporter = new RecordingReporter();
+
+        int totalLinesNumber = new StreamingStatisticService(".java", new FileStatisticService(asyncLineCounter,
+                new GeneratedSourceChecker(), GeneratedSourcePolicy.EXCLUDE, sourceFileGuard), asyncLineCounter)
+                .getStatistics(root, reporter);
+
+        List<SourceFileReportStatistic> expected = new FileStatisticService(LINE_COUNTER, new GeneratedSourceChecker(),
+                GeneratedSourcePolicy.EXCLUDE, sourceFileGuard)
+                .getStatistics(root, new FileDirectoryService(".java").getFileDirectoryHierarchy(root));
+        assertEquals(6, totalLinesNumber);
+        assertEquals(toMap(expected), toMap(reporter.completed));
+        assertTrue(reporter.completed.stream().noneMatch(statistic -> statistic.getPath().endsWith("G.java")
+                || statistic.getPath().endsWith("Binary.java")));
+    }
+
+    @Test
+    @DisplayName("Should replay collected statistics in completion order")
+    void replay() throws IOException {
+        List<SourceFileReportStatistic> statistics = new FileStatisticService(LINE_COUNTER)
+                .getStatistics(root, new FileDirectoryService(".java").getFileDirectoryHierarchy(root));
+        RecordingReporter reporter = new RecordingReporter();
+
+        StatisticsReplayer.replay(statistics, reporter);
+
+        assertEquals(toMap(statistics), toMap(reporter.completed));
+        assertEquals(root, reporter.completed.get(reporter.completed.size() - 1).getPath());
+        assertEquals(0, reporter.openDirectories);
+        assertTrue(reporter.completedBeforeParent);
+    }
+
+    private Map<Path, SourceFileReportStatistic> toMap(List<SourceFileReportStatistic> statistics) {
+        Map<Path, SourceFileReportStatistic> pathToStatistic = new HashMap<>();
+        statistics.forEach(statistic -> pathToStatistic.put(statistic.getPath(), statistic));
+        return pathToStatistic;
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingReporter implements StreamingReporter {
+        private final List<SourceFileReportStatistic> completed = new ArrayList<>();
+        private final List<Path> startedDirectories = new ArrayList<>();
+        private int openDirectories;
+        private int finished;
+        private boolean completedBeforeParent = true;
+
+        @Override
+        public void onDirectoryStart(Path path, int depth) {
+            startedDirectories.add(path);
+            openDirectories++;
+        }
+
+        @Override
+        public void onFile(SourceFileReportStatistic statistic) {
+            complete(statistic);
+        }
+
+        @Override
+        public void onDirectoryComplete(SourceFileReportStatistic statistic) {
+            assertTrue(startedDirectories.contains(statistic.getPath()));
+            openDirectories--;
+            complete(statistic);
+        }
+
+        @Override
+        public void finish() {
+            finished++;
+        }
+
+        private void complete(SourceFileReportStatistic statistic) {
+            Path parent = statistic.getPath().getParent();
+            if (completed.stream().anyMatch(done -> done.getPath().equals(parent))) {
+                completedBeforeParent = false;
+            }
+            completed.add(statistic);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package petrovskyi.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.entity.SourceFileReportStatistic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TarStatisticServiceTest {
+    private static final Path ROOT = Paths.get("snapshot.tar.gz");
+
+    @Test
+    @DisplayName("Should count java members of a tar stream and rebuild directory rollups")
+    void getStatisticsForTar() throws IOException {
+        TarStatisticService tarStatisticService = new TarStatisticService(".java", new JavaSourceLineCounter());
+
+        List<SourceFileReportStatistic> statistics =
+                tarStatisticService.getStatistics(new ByteArrayInputStream(tar()), ROOT);
+
+        assertEquals(ROOT, statistics.get(0).getPath());
+        assertEquals(7, statistics.get(0).getLinesNumber());
+        assertEquals(4, find(statistics, ROOT.resolve("src")).getLinesNumber());
+        assertEquals(2, find(statistics, ROOT.resolve("src/main/A.java")).getLinesNumber());
+        assertEquals(3, find(statistics, ROOT.resolve(longDirectoryName() + "/Long.java")).getLinesNumber());
+        assertEquals(0, find(statistics, ROOT.resolve("empty")).getLinesNumber());
+        assertTrue(statistics.stream().noneMatch(statistic -> statistic.getPath().toString().endsWith("README.md")));
+    }
+
+    @Test
+    @DisplayName("Should count a gzip compressed tar stream like a plain one")
+    void getStatisticsForTarGz() throws IOException {
+        TarStatisticService tarStatisticService = new TarStatisticService(".java", new JavaSourceLineCounter());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(tar());
+        }
+
+        assertEquals(tarStatisticService.getStatistics(new ByteArrayInputStream(tar()), ROOT),
+                tarStatisticService.getStatistics(new ByteArrayInputStream(compressed.toByteArray()), ROOT));
+    }
+
+    @Test
+    @DisplayName("Should take the path of a member from a PAX header and reject malformed or huge headers")
+    void getStatisticsForPaxHeaders() throws IOException {
+        TarStatisticService tarStatisticService = new TarStatisticService(".java", new JavaSourceLineCounter());
+
+        List<SourceFileReportStatistic> statistics = tarStatisticService.getStatistics(
+                new ByteArrayInputStream(paxTar(pax("path=pax/P.java"))), ROOT);
+        assertEquals(1, find(statistics, ROOT.resolve("pax/P.java")).getLinesNumber());
+
+        assertThrows(IOException.class, () -> tarStatisticService.getStatistics(
+                new ByteArrayInputStream(paxTar("99 path=pax/P.java\n".getBytes(StandardCharsets.UTF_8))), ROOT));
+        assertThrows(IOException.class, () -> tarStatisticService.getStatistics(
+                new ByteArrayInputStream(paxTar("x path=pax/P.java\n".getBytes(StandardCharsets.UTF_8))), ROOT));
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "././@LongLink", 'L', new byte[2 * 1024 * 1024]);
+        assertThrows(IOException.class, () -> tarStatisticService.getStatistics(
+                new ByteArrayInputStream(tar.toByteArray()), ROOT));
+    }
+
+    private byte[] paxTar(byte[] paxHeader) throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "PaxHeader", 'x', paxHeader);
+        entry(tar, "truncated", '0', "class P {}\n".getBytes(StandardCharsets.UTF_8));
+        tar.write(new byte[1024]);
+
+        return tar.toByteArray();
+    }
+
+    private byte[] pax(String keyValue) {
+        int length = keyValue.length() + 2;
+        length += String.valueOf(length + String.valueOf(length).length()).length();
+        return (length + " " + keyValue + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] tar() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "./", '5', new byte[0]);
+        entry(tar, "./empty/", '5', new byte[0]);
+        entry(tar, "./src/main/A.java", '0', "class A {\n}\n".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "./src/B.java", '0', "// B\nclass B {\n}\n".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "./README.md", '0', "# readme\n".getBytes(StandardCharsets.UTF_8));
+
+        byte[] longName = (longDirectoryName() + "/Long.java\0").getBytes(StandardCharsets.UTF_8);
+        entry(tar, "././@LongLink", 'L', longName);
+        entry(tar, "truncated", '0', "class Long {\n int l;\n}\n".getBytes(StandardCharsets.UTF_8));
+
+        tar.write(new byte[1024]);
+
+        return tar.toByteArray();
+    }
+
+    private String longDirectoryName() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            name.append("directory").append(i);
+        }
+
+        return name.toString();
+    }
+
+    private void entry(ByteArrayOutputStream tar, String name, char type, byte[] data) throws IOException {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+        octal(header, 100, 8, 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, data.length);
+        octal(header, 136, 12, 0);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+        header[263] = '0';
+        header[264] = '0';
+
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(header, 148, 7, checksum);
+
+        tar.write(header);
+        tar.write(data);
+        tar.write(new byte[(512 - data.length % 512) % 512]);
+    }
+
+    private void octal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        while (octal.length() < length - 1) {
+            octal = "0" + octal;
+        }
+        byte[] bytes = octal.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, length - 1);
+        header[offset + length - 1] = 0;
+    }
+
+    private SourceFileReportStatistic find(List<SourceFileReportStatistic> statistics, Path path) {
+        return statistics.stream()
+                .filter(statistic -> statistic.getPath().equals(path))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistic for " + path));
+    }
+}
@@ -0,0 +1,42 @@
+package petrovskyi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CharsetDetectorTest {
+    private static final String CODE = "// Señor\nclass A {\n int a;\n}\n";
+
+    @Test
+    @DisplayName("Should detect the charset by byte order mark, NUL pattern and UTF-8 validity")
+    void detect() {
+        assertEquals(StandardCharsets.UTF_8, detect("class A {}\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(StandardCharsets.UTF_8, detect(CODE.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(StandardCharsets.UTF_8, detect(("\uFEFF" + CODE).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(StandardCharsets.ISO_8859_1, detect(CODE.getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals(StandardCharsets.UTF_16LE, detect(("\uFEFF" + CODE).getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals(StandardCharsets.UTF_16BE, detect(CODE.getBytes(StandardCharsets.UTF_16)));
+        assertEquals(StandardCharsets.UTF_16LE, detect(CODE.getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals(StandardCharsets.UTF_16BE, detect(CODE.getBytes(StandardCharsets.UTF_16BE)));
+    }
+
+    @Test
+    @DisplayName("Should return the length of the byte order mark")
+    void bomLength() {
+        assertEquals(3, bomLength(("\uFEFF" + CODE).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, bomLength(CODE.getBytes(StandardCharsets.UTF_16)));
+        assertEquals(0, bomLength(CODE.getBytes(StandardCharsets.UTF_16LE)));
+    }
+
+    private Charset detect(byte[] bytes) {
+        return CharsetDetector.detect(bytes, bytes.length);
+    }
+
+    private int bomLength(byte[] bytes) {
+        return CharsetDetector.bomLength(bytes, bytes.length);
+    }
+}
@@ -0,0 +1,112 @@
+package petrovskyi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectBufferPoolTest {
+
+    @Test
+    @DisplayName("Should hand a released buffer out again")
+    void acquireReleased() throws IOException {
+        DirectBufferPool bufferPool = new DirectBufferPool(1024, 4);
+
+        ByteBuffer buffer = bufferPool.acquire();
+        buffer.put((byte) 1);
+        bufferPool.release(buffer);
+        ByteBuffer reused = bufferPool.acquire();
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(1024, bufferPool.getAllocatedBytes());
+        assertEquals(1, bufferPool.getInUseBuffers());
+    }
+
+    @Test
+    @DisplayName("Should make an acquirer over the cap wait for a released buffer")
+    void acquireOverCap() throws Exception {
+        DirectBufferPool bufferPool = new DirectBufferPool(1024, 2);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            ByteBuffer first = bufferPool.acquire();
+            ByteBuffer second = bufferPool.acquire();
+            Future<ByteBuffer> third = executorService.submit(bufferPool::acquire);
+
+            assertThrows(TimeoutException.class, () -> third.get(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, bufferPool.getWaits());
+
+            bufferPool.release(second);
+            assertSame(second, third.get(10, TimeUnit.SECONDS));
+            assertTrue(first.isDirect());
+            assertEquals(bufferPool.getMaxBytes(), bufferPool.getAllocatedBytes());
+            assertEquals(2, bufferPool.getInUseBuffers());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should take a buffer kept by another thread instead of waiting at the cap")
+    void acquireFromOtherThread() throws Exception {
+        DirectBufferPool bufferPool = new DirectBufferPool(1024, 1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            ByteBuffer kept = executorService.submit(() -> {
+                ByteBuffer buffer = bufferPool.acquire();
+                bufferPool.release(buffer); // stays in the slot of the pool thread
+                return buffer;
+            }).get(10, TimeUnit.SECONDS);
+
+            assertSame(kept, bufferPool.acquire());
+            assertEquals(0, bufferPool.getWaits());
+            assertEquals(1024, bufferPool.getAllocatedBytes());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should never allocate more than the cap under concurrent use")
+    void acquireConcurrently() throws Exception {
+        DirectBufferPool bufferPool = new DirectBufferPool(256, 4);
+        AtomicLong maxAllocatedBytes = new AtomicLong();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        ByteBuffer buffer = bufferPool.acquire();
+                        buffer.putInt(j);
+                        maxAllocatedBytes.accumulateAndGet(bufferPool.getAllocatedBytes(), Math::max);
+                        bufferPool.release(buffer);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertTrue(maxAllocatedBytes.get() <= bufferPool.getMaxBytes());
+        assertEquals(0, bufferPool.getInUseBuffers());
+    }
+}
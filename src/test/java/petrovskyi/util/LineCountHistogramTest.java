@@ -0,0 +1,91 @@
+package petrovskyi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineCountHistogramTest {
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void getValueAtPercentile() {
+        LineCountHistogram histogram = new LineCountHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMaxValue());
+        assertWithin(500, histogram.getValueAtPercentile(50));
+        assertWithin(900, histogram.getValueAtPercentile(90));
+        assertWithin(990, histogram.getValueAtPercentile(99));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LineCountHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    @DisplayName("Should keep small values exact and cover the whole int range")
+    void buckets() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LineCountHistogram.highestValue(LineCountHistogram.index(value)));
+        }
+        for (int value : new int[]{16, 17, 100, 65_535, 1 << 20, Integer.MAX_VALUE}) {
+            int highestValue = LineCountHistogram.highestValue(LineCountHistogram.index(value));
+            assertTrue(highestValue >= value && highestValue - value <= value / 8, value + " -> " + highestValue);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same result for merged histograms as for recording everything in one")
+    void add() {
+        Random random = new Random(47);
+        LineCountHistogram all = new LineCountHistogram();
+        LineCountHistogram first = new LineCountHistogram();
+        LineCountHistogram second = new LineCountHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(5000);
+            all.record(value);
+            (i % 3 == 0 ? first : second).record(value);
+        }
+
+        first.add(second);
+
+        assertEquals(all.getTotalCount(), first.getTotalCount());
+        assertEquals(all.getMaxValue(), first.getMaxValue());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            assertEquals(all.getValueAtPercentile(percentile), first.getValueAtPercentile(percentile));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose values recorded from many threads")
+    void recordConcurrently() throws InterruptedException {
+        LineCountHistogram histogram = new LineCountHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getTotalCount());
+        assertEquals(99, histogram.getMaxValue());
+    }
+
+    private void assertWithin(int expected, int actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 8, expected + " -> " + actual);
+    }
+}
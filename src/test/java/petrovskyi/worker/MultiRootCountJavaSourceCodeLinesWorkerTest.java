@@ -0,0 +1,159 @@
+package petrovskyi.worker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import petrovskyi.counter.ExecutorLineCounter;
+import petrovskyi.counter.JavaSourceLineCounter;
+import petrovskyi.counter.LineCounter;
+import petrovskyi.entity.MultiRootStatistics;
+import petrovskyi.entity.SourceFileReportStatistic;
+import petrovskyi.service.ArchiveStatisticService;
+import petrovskyi.service.FileDirectoryService;
+import petrovskyi.service.FileStatisticService;
+import petrovskyi.service.TarStatisticService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MultiRootCountJavaSourceCodeLinesWorkerTest {
+    private final Map<Path, AtomicInteger> pathToReads = new ConcurrentHashMap<>();
+    private final Set<Thread> countingThreads = ConcurrentHashMap.newKeySet();
+    private final LineCounter lineCounter = new LineCounter() {
+        private final LineCounter javaSourceLineCounter = new JavaSourceLineCounter();
+
+        @Override
+        public int count(InputStream inputStream) {
+            return javaSourceLineCounter.count(inputStream);
+        }
+
+        @Override
+        public int count(Path path) throws IOException {
+            pathToReads.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            countingThreads.add(Thread.currentThread());
+            return javaSourceLineCounter.count(path);
+        }
+    };
+
+    private Path root;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("roots").toRealPath();
+        Files.createDirectories(root.resolve("a").resolve("inner"));
+        Files.createDirectories(root.resolve("b"));
+        Files.createDirectories(root.resolve("c"));
+        write(root.resolve("a").resolve("inner").resolve("A.java"), "class A {\n}\n");
+        write(root.resolve("b").resolve("B.java"), "class B {\n int b;\n}\n");
+        write(root.resolve("c").resolve("C.java"), "class C {}\n");
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executorService.shutdown();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read every file once and cut nested roots out of the outermost ones")
+    void getStatistics() {
+        MultiRootCountJavaSourceCodeLinesWorker multiRootWorker = newMultiRootWorker();
+        Path a = root.resolve("a");
+        Path b = root.resolve("b");
+        Path innerA = a.resolve("inner").resolve("A.java");
+
+        MultiRootStatistics multiRootStatistics =
+                multiRootWorker.getStatistics(Arrays.asList(innerA, a, b, a.resolve("inner").resolve("..")));
+
+        assertEquals(2, pathToReads.size());
+        assertEquals(0, pathToReads.keySet().stream().filter(path -> path.startsWith(root.resolve("c"))).count());
+        pathToReads.values().forEach(reads -> assertEquals(1, reads.get()));
+
+        assertEquals(Arrays.asList(innerA, a, b), Arrays.asList(multiRootStatistics.getRootToStatistics().keySet().toArray()));
+        List<SourceFileReportStatistic> innerAStatistics = multiRootStatistics.getRootToStatistics().get(innerA);
+        assertEquals(1, innerAStatistics.size());
+        assertEquals(0, innerAStatistics.get(0).getDepth());
+        assertEquals(2, innerAStatistics.get(0).getLinesNumber());
+        assertEquals(3, multiRootStatistics.getRootToStatistics().get(a).size());
+
+        List<SourceFileReportStatistic> combinedStatistics = multiRootStatistics.getCombinedStatistics();
+        assertEquals(MultiRootCountJavaSourceCodeLinesWorker.COMBINED_ROOT, combinedStatistics.get(0).getPath());
+        assertEquals(5, combinedStatistics.get(0).getLinesNumber());
+        assertEquals(6, combinedStatistics.size()); // total + a + inner + A.java + b + B.java
+        assertFalse(countingThreads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    @DisplayName("Should count a root reached through a symbolic link once")
+    void getStatisticsThroughSymbolicLink() throws IOException {
+        Path b = root.resolve("b");
+        Path link;
+        try {
+            link = Files.createSymbolicLink(root.resolve("link"), b);
+        } catch (UnsupportedOperationException | IOException e) {
+            return;
+        }
+
+        MultiRootStatistics multiRootStatistics = newMultiRootWorker().getStatistics(Arrays.asList(b, link));
+
+        assertEquals(1, pathToReads.size());
+        assertEquals(Collections.singletonList(b), Arrays.asList(multiRootStatistics.getRootToStatistics().keySet().toArray()));
+        assertEquals(3, multiRootStatistics.getCombinedStatistics().get(0).getLinesNumber());
+    }
+
+    @Test
+    @DisplayName("Should count an archive root nested in a directory root on its own")
+    void getStatisticsWithNestedArchive() throws IOException {
+        Path a = root.resolve("a");
+        Path archive = a.resolve("x-sources.jar");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zipOutputStream.putNextEntry(new ZipEntry("x/X.java"));
+            zipOutputStream.write("class X {\n int x;\n}\n".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+
+        MultiRootStatistics multiRootStatistics = newMultiRootWorker().getStatistics(Arrays.asList(a, archive));
+
+        assertEquals(Arrays.asList(a, archive), Arrays.asList(multiRootStatistics.getRootToStatistics().keySet().toArray()));
+        assertEquals(2, multiRootStatistics.getRootToStatistics().get(a).get(0).getLinesNumber());
+        assertEquals(3, multiRootStatistics.getRootToStatistics().get(archive).get(0).getLinesNumber());
+        assertEquals(5, multiRootStatistics.getCombinedStatistics().get(0).getLinesNumber());
+    }
+
+    private MultiRootCountJavaSourceCodeLinesWorker newMultiRootWorker() {
+        ExecutorLineCounter executorLineCounter = new ExecutorLineCounter(lineCounter, executorService);
+        return new MultiRootCountJavaSourceCodeLinesWorker(new FileDirectoryService(".java"),
+                new FileStatisticService(executorLineCounter), executorLineCounter,
+                new ArchiveCountJavaSourceCodeLinesWorker(new ArchiveStatisticService(".java", lineCounter),
+                        new TarStatisticService(".java", lineCounter)),
+                executorService);
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}